@@ -0,0 +1,31 @@
+package com.example.expenseapproval.config;
+
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.example.expenseapproval.service.OptimisticRetry;
+import com.example.expenseapproval.service.WorkflowAdvancer;
+
+// /actuator/approvalprocessing: optimistic conflicts and retries of approval decisions, and the failed and
+// parked attempts of the background workflow advancer
+@Component
+@Endpoint(id = "approvalprocessing")
+public class ApprovalProcessingEndpoint {
+
+    public record ApprovalProcessingStats(OptimisticRetry.Stats retries, WorkflowAdvancer.Stats advancer) {
+    }
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private WorkflowAdvancer workflowAdvancer;
+
+    @ReadOperation
+    public ApprovalProcessingStats stats() {
+        return new ApprovalProcessingStats(optimisticRetry.stats(), workflowAdvancer.stats());
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.expenseapproval.config;
+
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.example.expenseapproval.service.audit.AuditTrail;
+import com.example.expenseapproval.service.audit.AuditTrail.AuditStats;
+
+// /actuator/audittrail: published, written, backpressured, dropped and discarded audit events and the queue depth
+@Component
+@Endpoint(id = "audittrail")
+public class AuditTrailEndpoint {
+
+    @Autowired
+    private AuditTrail auditTrail;
+
+    @ReadOperation
+    public AuditStats stats() {
+        return auditTrail.stats();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.expenseapproval.config;
+
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-process Hibernate second-level cache. Entity and collection regions share one size/TTL bound, query
+ * result regions another; the update-timestamps region is never bounded, since losing a timestamp could
+ * let a stale query result through. Per-region hit/miss/eviction counters are available from {@link #stats()}
+ * and the referencecache actuator endpoint.
+ */
+public class BoundedRegionFactory extends RegionFactoryTemplate {
+
+    public record RegionStats(String region,
+                              int size,
+                              int maxEntries,
+                              long hits,
+                              long misses,
+                              long puts,
+                              long evictions,
+                              long expirations) {
+    }
+
+    private final int maxEntries;
+    private final Duration ttl;
+    private final int queryMaxEntries;
+    private final Duration queryTtl;
+
+    private final ConcurrentMap<String, BoundedStorageAccess> regions = new ConcurrentHashMap<>();
+
+    public BoundedRegionFactory(int maxEntries, Duration ttl, int queryMaxEntries, Duration queryTtl) {
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.queryMaxEntries = queryMaxEntries;
+        this.queryTtl = queryTtl;
+    }
+
+    public List<RegionStats> stats() {
+        List<RegionStats> stats = new ArrayList<>();
+        for (BoundedStorageAccess region : regions.values()) {
+            stats.add(region.stats());
+        }
+        stats.sort(Comparator.comparing(RegionStats::region));
+        return stats;
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return register(regionConfig.getRegionName(), maxEntries, ttl);
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName,
+                                                                  SessionFactoryImplementor sessionFactory) {
+        return register(regionName, queryMaxEntries, queryTtl);
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName,
+                                                                SessionFactoryImplementor sessionFactory) {
+        return register(regionName, 0, Duration.ZERO);
+    }
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        regions.values().forEach(BoundedStorageAccess::release);
+        regions.clear();
+    }
+
+    private BoundedStorageAccess register(String regionName, int bound, Duration timeToLive) {
+        BoundedStorageAccess storage = new BoundedStorageAccess(regionName, bound, timeToLive.toNanos());
+        regions.put(regionName, storage);
+        return storage;
+    }
+}
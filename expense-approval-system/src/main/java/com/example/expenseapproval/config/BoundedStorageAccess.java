@@ -0,0 +1,126 @@
+package com.example.expenseapproval.config;
+
+
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One cache region: an access-ordered map holding at most maxEntries values, each dropped ttlNanos after
+ * it was written. Least recently used entries go first when the region is full. A bound or TTL of zero
+ * disables that limit (the timestamps region uses neither).
+ */
+final class BoundedStorageAccess implements DomainDataStorageAccess {
+
+    private record Entry(Object value, long writtenAt) {
+    }
+
+    private final String regionName;
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong puts = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    BoundedStorageAccess(String regionName, int maxEntries, long ttlNanos) {
+        this.regionName = regionName;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlNanos;
+    }
+
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && isExpired(entry, System.nanoTime())) {
+                entries.remove(key);
+                expirations.incrementAndGet();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry.value();
+        }
+    }
+
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            entries.put(key, new Entry(value, now));
+            puts.incrementAndGet();
+            if (maxEntries > 0 && entries.size() > maxEntries) {
+                evictOverflow(now);
+            }
+        }
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            return entry != null && !isExpired(entry, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void evictData() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    @Override
+    public void evictData(Object key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    @Override
+    public void release() {
+        evictData();
+    }
+
+    BoundedRegionFactory.RegionStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new BoundedRegionFactory.RegionStats(regionName, size, maxEntries, hits.get(), misses.get(),
+                puts.get(), evictions.get(), expirations.get());
+    }
+
+    // Expired entries are dropped first; if the region is still over its bound, the least recently used go
+    private void evictOverflow(long now) {
+        Iterator<Map.Entry<Object, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext() && entries.size() > maxEntries) {
+            if (isExpired(it.next().getValue(), now)) {
+                it.remove();
+                expirations.incrementAndGet();
+            }
+        }
+        it = entries.entrySet().iterator();
+        while (it.hasNext() && entries.size() > maxEntries) {
+            it.next();
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return ttlNanos > 0 && now - entry.writtenAt() >= ttlNanos;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.expenseapproval.config;
+
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps a user's reads on the primary for a short window after their own write, so a listing requested
+ * right after a submission or decision never comes from a replica that has not replayed it yet.
+ * Services record writes by user id and call {@link #readAs} at the start of a read-only transaction, before
+ * its first query; {@link ReplicaRoutingDataSource} then routes that transaction to the primary.
+ */
+@Component
+public class ReadYourWrites {
+
+    // Transaction resource marking a read-only transaction that must read from the primary
+    private static final Object PINNED_TO_PRIMARY = new Object();
+
+    @Value("${datasource.read-your-writes-window:PT5S}")
+    private Duration window;
+
+    // System.nanoTime() of each user's last committed write
+    private final ConcurrentMap<Long, Long> lastWrite = new ConcurrentHashMap<>();
+
+    // Starts the user's window once the current transaction commits (immediately if there is none)
+    public void recordWriteAfterCommit(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    lastWrite.put(userId, System.nanoTime());
+                }
+            });
+        } else {
+            lastWrite.put(userId, System.nanoTime());
+        }
+    }
+
+    // Pins the current transaction to the primary if the user wrote within the window
+    public void readAs(Long userId) {
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(PINNED_TO_PRIMARY)) {
+            return;
+        }
+        Long writtenAt = lastWrite.get(userId);
+        if (writtenAt == null || System.nanoTime() - writtenAt >= window.toNanos()) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(PINNED_TO_PRIMARY, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PINNED_TO_PRIMARY);
+            }
+        });
+    }
+
+    // Drops users whose window has passed; called by ReplicaLagMonitor
+    public void evictExpired() {
+        long now = System.nanoTime();
+        lastWrite.values().removeIf(writtenAt -> now - writtenAt >= window.toNanos());
+    }
+
+    static boolean pinnedToPrimary() {
+        return TransactionSynchronizationManager.hasResource(PINNED_TO_PRIMARY);
+    }
+}
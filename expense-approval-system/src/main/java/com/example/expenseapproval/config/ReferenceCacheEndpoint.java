@@ -0,0 +1,25 @@
+package com.example.expenseapproval.config;
+
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.example.expenseapproval.config.BoundedRegionFactory.RegionStats;
+
+import java.util.List;
+
+// /actuator/referencecache: size, hits, misses, puts, evictions and expirations of each second-level cache region
+@Component
+@Endpoint(id = "referencecache")
+public class ReferenceCacheEndpoint {
+
+    @Autowired
+    private BoundedRegionFactory referenceDataRegionFactory;
+
+    @ReadOperation
+    public List<RegionStats> regions() {
+        return referenceDataRegionFactory.stats();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.expenseapproval.config;
+
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class ReferenceDataCacheConfig {
+
+    // Companies, users, workflows, steps and rules (@Cache on the entities) and their cacheable lookups
+    @Bean
+    public BoundedRegionFactory referenceDataRegionFactory(@Value("${cache.reference.max-entries:10000}") int maxEntries,
+                                                           @Value("${cache.reference.ttl:PT10M}") Duration ttl,
+                                                           @Value("${cache.reference.query.max-entries:5000}") int queryMaxEntries,
+                                                           @Value("${cache.reference.query.ttl:PT5M}") Duration queryTtl) {
+        return new BoundedRegionFactory(maxEntries, ttl, queryMaxEntries, queryTtl);
+    }
+
+    // Hands Hibernate the bean itself rather than a class name, so its statistics stay reachable from Spring
+    @Bean
+    public HibernatePropertiesCustomizer referenceDataCacheCustomizer(BoundedRegionFactory referenceDataRegionFactory) {
+        return properties -> properties.put(AvailableSettings.CACHE_REGION_FACTORY, referenceDataRegionFactory);
+    }
+}
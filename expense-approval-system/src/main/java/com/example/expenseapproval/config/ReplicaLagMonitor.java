@@ -0,0 +1,23 @@
+package com.example.expenseapproval.config;
+
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Re-measures replica lag for ReplicaRoutingDataSource; until the first run every read goes to the primary
+@Component
+public class ReplicaLagMonitor {
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Scheduled(fixedDelayString = "${datasource.replica-lag-check-ms:1000}")
+    public void check() {
+        replicaRoutingDataSource.checkReplicaLag();
+        readYourWrites.evictExpired();
+    }
+}
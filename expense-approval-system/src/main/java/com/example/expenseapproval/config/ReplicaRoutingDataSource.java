@@ -0,0 +1,118 @@
+package com.example.expenseapproval.config;
+
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a replica pool and everything else to the primary.
+ * The key is looked up when a transaction first needs a connection (the application sees this data source
+ * through a LazyConnectionDataSourceProxy), by which time the transaction's read-only flag is set.
+ * Replicas are tried round-robin and skipped while their last measured lag exceeds maxLag or could not be
+ * measured. With no usable replica, or when {@link ReadYourWrites} pinned the transaction, reads stay on the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    // Zero on a caught-up standby, and on a server that is not a standby at all (a local stand-in);
+    // null until the standby has replayed its first transaction
+    private static final String LAG_SQL = "select case when not pg_is_in_recovery() "
+            + "or pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 "
+            + "else (extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000)::bigint end";
+
+    private final Map<String, DataSource> replicas = new LinkedHashMap<>();
+    private final List<String> replicaKeys;
+    private final long maxLagMillis;
+
+    // Last measured lag by replica; absent until measured and after a failed measurement
+    private final ConcurrentMap<String, Long> lagMillis = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicaPools, Duration maxLag) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicaPools.size(); i++) {
+            replicas.put("replica-" + i, replicaPools.get(i));
+        }
+        targets.putAll(replicas);
+        this.replicaKeys = new ArrayList<>(replicas.keySet());
+        this.maxLagMillis = maxLag.toMillis();
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaKeys.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || ReadYourWrites.pinnedToPrimary()) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicaKeys.size());
+        for (int i = 0; i < replicaKeys.size(); i++) {
+            String key = replicaKeys.get((start + i) % replicaKeys.size());
+            Long lag = lagMillis.get(key);
+            if (lag != null && lag <= maxLagMillis) {
+                return key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    // Measures every replica once; called by ReplicaLagMonitor
+    public void checkReplicaLag() {
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            try (Connection connection = replica.getValue().getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(LAG_SQL)) {
+                rs.next();
+                long lag = rs.getLong(1);
+                recordLag(replica.getKey(), rs.wasNull() ? null : lag);
+            } catch (SQLException e) {
+                if (lagMillis.containsKey(replica.getKey())) {
+                    System.err.println("Replica " + replica.getKey() + " unreachable, reading from the primary: " + e.getMessage());
+                }
+                recordLag(replica.getKey(), null);
+            }
+        }
+    }
+
+    // Last measured lag in milliseconds by replica, for monitoring; unmeasured replicas are left out
+    public Map<String, Long> replicaLag() {
+        return Map.copyOf(lagMillis);
+    }
+
+    void recordLag(String replica, Long millis) {
+        if (millis == null) {
+            lagMillis.remove(replica);
+        } else {
+            lagMillis.put(replica, millis);
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
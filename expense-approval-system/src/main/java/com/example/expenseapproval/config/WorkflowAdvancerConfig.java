@@ -0,0 +1,27 @@
+package com.example.expenseapproval.config;
+
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableScheduling
+public class WorkflowAdvancerConfig {
+
+    // Bounded pool for WorkflowAdvancer (the project targets Java 17, so no virtual threads)
+    @Bean
+    public ThreadPoolTaskExecutor workflowAdvancerExecutor(@Value("${approval.advancer.threads:4}") int threads,
+                                                           @Value("${approval.advancer.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("workflow-advancer-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.expenseapproval.dto;
+
+
+import com.example.expenseapproval.model.Approval.ApprovalStatus;
+
+// One approver decision in a bulk approval request
+public record ApprovalDecision(Long approvalId, ApprovalStatus status, String remarks) {
+}
@@ -0,0 +1,17 @@
+package com.example.expenseapproval.dto;
+
+
+import com.example.expenseapproval.model.Expense.ExpenseStatus;
+
+// Per-item outcome of a bulk approval request; error is set when the decision was not recorded.
+// expenseStatus is the status when the decision was recorded, before the workflow advancer applied it.
+public record ApprovalDecisionResult(Long approvalId, boolean processed, ExpenseStatus expenseStatus, String error) {
+
+    public static ApprovalDecisionResult processed(Long approvalId, ExpenseStatus expenseStatus) {
+        return new ApprovalDecisionResult(approvalId, true, expenseStatus, null);
+    }
+
+    public static ApprovalDecisionResult failed(Long approvalId, String error) {
+        return new ApprovalDecisionResult(approvalId, false, null, error);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.expenseapproval.dto;
+
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// One pending approval in an approver's inbox, with the expense and submitter columns it is shown with
+public record ApprovalInboxRow(Long approvalId,
+                               Integer workflowStep,
+                               LocalDateTime createdAt,
+                               Long expenseId,
+                               BigDecimal amount,
+                               String currency,
+                               String category,
+                               LocalDate expenseDate,
+                               Long submitterId,
+                               String submitterName) {
+}
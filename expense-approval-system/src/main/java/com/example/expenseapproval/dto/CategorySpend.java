@@ -0,0 +1,15 @@
+package com.example.expenseapproval.dto;
+
+
+import com.example.expenseapproval.model.Expense.ExpenseStatus;
+
+import java.math.BigDecimal;
+
+// Spend of one category per status and currency
+public record CategorySpend(String category,
+                            ExpenseStatus status,
+                            String currency,
+                            Long expenseCount,
+                            BigDecimal totalAmount,
+                            BigDecimal totalInBaseCurrency) {
+}
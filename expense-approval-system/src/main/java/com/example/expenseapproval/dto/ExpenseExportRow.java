@@ -0,0 +1,23 @@
+package com.example.expenseapproval.dto;
+
+
+import com.example.expenseapproval.model.Expense.ExpenseStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// One exported expense, read as a projection so export rows never enter the persistence context
+public record ExpenseExportRow(Long id,
+                               Long userId,
+                               String userEmail,
+                               BigDecimal amount,
+                               String currency,
+                               BigDecimal amountInBaseCurrency,
+                               String category,
+                               String description,
+                               LocalDate expenseDate,
+                               String paidBy,
+                               ExpenseStatus status,
+                               LocalDateTime submittedAt) {
+}
@@ -0,0 +1,20 @@
+package com.example.expenseapproval.dto;
+
+
+import com.example.expenseapproval.model.Expense.ExpenseStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// List row for an expense: only the columns the listing shows, read by a constructor query
+public record ExpenseSummary(Long id,
+                             BigDecimal amount,
+                             String currency,
+                             String category,
+                             LocalDate expenseDate,
+                             ExpenseStatus status,
+                             LocalDateTime submittedAt,
+                             Long userId,
+                             String userName) {
+}
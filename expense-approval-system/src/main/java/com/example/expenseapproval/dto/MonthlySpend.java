@@ -0,0 +1,16 @@
+package com.example.expenseapproval.dto;
+
+
+import com.example.expenseapproval.model.Expense.ExpenseStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Spend of one month (first day of the month of the expense date) per status and currency
+public record MonthlySpend(LocalDate month,
+                           ExpenseStatus status,
+                           String currency,
+                           Long expenseCount,
+                           BigDecimal totalAmount,
+                           BigDecimal totalInBaseCurrency) {
+}
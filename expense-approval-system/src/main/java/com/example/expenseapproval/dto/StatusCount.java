@@ -0,0 +1,9 @@
+package com.example.expenseapproval.dto;
+
+
+import com.example.expenseapproval.model.Expense.ExpenseStatus;
+
+// Number of expenses in one status, summed from the spend aggregates
+public record StatusCount(ExpenseStatus status,
+                          Long expenseCount) {
+}
@@ -0,0 +1,7 @@
+package com.example.expenseapproval.dto;
+
+
+// Expenses waiting at one step of a workflow (0 = manager approval), read from the expense workflow cursor
+public record StepPendingCount(Integer stepOrder,
+                               long pendingCount) {
+}
@@ -0,0 +1,14 @@
+package com.example.expenseapproval.dto;
+
+
+import com.example.expenseapproval.model.User.Role;
+
+// Company directory entry; managerId and managerName are null for users without a manager
+public record UserDirectoryRow(Long id,
+                               String name,
+                               String email,
+                               Role role,
+                               Long managerId,
+                               String managerName,
+                               Boolean isActive) {
+}
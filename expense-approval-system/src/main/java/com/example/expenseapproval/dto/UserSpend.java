@@ -0,0 +1,15 @@
+package com.example.expenseapproval.dto;
+
+
+import com.example.expenseapproval.model.Expense.ExpenseStatus;
+
+import java.math.BigDecimal;
+
+// Spend of one submitter per status and currency
+public record UserSpend(Long userId,
+                        ExpenseStatus status,
+                        String currency,
+                        Long expenseCount,
+                        BigDecimal totalAmount,
+                        BigDecimal totalInBaseCurrency) {
+}
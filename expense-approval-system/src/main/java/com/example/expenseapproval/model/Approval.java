@@ -3,24 +3,43 @@ package com.example.expenseapproval.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "approvals")
+@NamedEntityGraph(name = FetchPlans.APPROVAL_INBOX,
+        attributeNodes = {
+                @NamedAttributeNode("approver"),
+                @NamedAttributeNode(value = "expense", subgraph = "expense")
+        },
+        subgraphs = @NamedSubgraph(name = "expense", attributeNodes = @NamedAttributeNode("user")))
+@NamedEntityGraph(name = FetchPlans.APPROVAL_TRAIL, attributeNodes = @NamedAttributeNode("approver"))
+@Table(name = "approvals", indexes = {
+        @Index(name = "idx_approvals_status", columnList = "status, created_at"),
+        @Index(name = "idx_approvals_approver_status", columnList = "approver_id, status, created_at"),
+        @Index(name = "idx_approvals_expense_approver", columnList = "expense_id, approver_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Approval {
+    // Sequence ids (allocated 50 at a time) let Hibernate batch approval inserts; IDENTITY disables batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "approvals_seq")
+    @SequenceGenerator(name = "approvals_seq", sequenceName = "approvals_seq", allocationSize = 50)
     private Long id;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "expense_id", nullable = false)
     private Expense expense;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "approver_id", nullable = false)
     private User approver;
@@ -41,14 +60,35 @@ public class Approval {
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    @Version
+    private Long version;
+
+    // How far the SLA escalation of this approval has gone, so a restart does not repeat it
+    @Enumerated(EnumType.STRING)
+    @Column(name = "sla_stage", nullable = false, length = 15)
+    private SlaStage slaStage = SlaStage.NONE;
+
     public enum ApprovalStatus {
-        PENDING, APPROVED, REJECTED
+        PENDING, APPROVED, REJECTED,
+        SKIPPED // Closed without a decision because the expense was finalized by its rules first
+    }
+
+    public enum SlaStage {
+        NONE, REMINDED, ESCALATED
     }
 
 	public Long getId() {
 		return id;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	public void setId(Long id) {
 		this.id = id;
 	}
@@ -109,5 +149,13 @@ public class Approval {
 		this.createdAt = createdAt;
 	}
 
+	public SlaStage getSlaStage() {
+		return slaStage;
+	}
+
+	public void setSlaStage(SlaStage slaStage) {
+		this.slaStage = slaStage;
+	}
+
 	
 }
\ No newline at end of file
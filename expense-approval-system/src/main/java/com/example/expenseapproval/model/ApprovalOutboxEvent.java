@@ -0,0 +1,144 @@
+package com.example.expenseapproval.model;
+
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A recorded approval decision waiting for the background advancer to move its expense forward.
+ * Written in the same transaction as the decision; processedAt is set in the transaction that applies it.
+ * When applying fails, the advancer counts the attempt and backs off until nextAttemptAt. After
+ * approval.advancer.max-attempts failures it parks the event: parkedAt is set and the event is no longer
+ * dispatched until an operator clears parkedAt.
+ */
+@Entity
+@Table(name = "approval_outbox",
+        indexes = @Index(name = "idx_approval_outbox_pending", columnList = "processed_at, expense_id"))
+public class ApprovalOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "approval_outbox_seq")
+    @SequenceGenerator(name = "approval_outbox_seq", sequenceName = "approval_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "expense_id", nullable = false)
+    private Long expenseId;
+
+    // Unique: a decision can only ever be queued once, even if two requests race on the same approval
+    @Column(name = "approval_id", nullable = false, unique = true)
+    private Long approvalId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 15)
+    private Approval.ApprovalStatus decision;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "parked_at")
+    private LocalDateTime parkedAt;
+
+    // Two workers marking the same event processed cannot both commit
+    @Version
+    private Long version;
+
+    public ApprovalOutboxEvent() {
+    }
+
+    public ApprovalOutboxEvent(Long expenseId, Long approvalId, Approval.ApprovalStatus decision) {
+        this.expenseId = expenseId;
+        this.approvalId = approvalId;
+        this.decision = decision;
+    }
+
+    // ------------- Getters & Setters ----------------
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getExpenseId() {
+        return expenseId;
+    }
+
+    public void setExpenseId(Long expenseId) {
+        this.expenseId = expenseId;
+    }
+
+    public Long getApprovalId() {
+        return approvalId;
+    }
+
+    public void setApprovalId(Long approvalId) {
+        this.approvalId = approvalId;
+    }
+
+    public Approval.ApprovalStatus getDecision() {
+        return decision;
+    }
+
+    public void setDecision(Approval.ApprovalStatus decision) {
+        this.decision = decision;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+
+    public void setProcessedAt(LocalDateTime processedAt) {
+        this.processedAt = processedAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public LocalDateTime getParkedAt() {
+        return parkedAt;
+    }
+
+    public void setParkedAt(LocalDateTime parkedAt) {
+        this.parkedAt = parkedAt;
+    }
+}
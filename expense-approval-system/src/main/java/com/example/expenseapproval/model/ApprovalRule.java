@@ -2,21 +2,30 @@ package com.example.expenseapproval.model;
 
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import java.math.BigDecimal;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "approval_rules")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class ApprovalRule {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "approval_rules_seq")
+    @SequenceGenerator(name = "approval_rules_seq", sequenceName = "approval_rules_seq", allocationSize = 50)
     private Long id;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "workflow_id", nullable = false)
     private ApprovalWorkflow workflow;
@@ -28,6 +37,8 @@ public class ApprovalRule {
     @Column(name = "percentage_required", precision = 5, scale = 2)
     private BigDecimal percentageRequired;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "specific_approver_id")
     private User specificApprover;
@@ -35,6 +46,10 @@ public class ApprovalRule {
     @Column(name = "is_active")
     private Boolean isActive = true;
 
+    // Boolean rule expression for HYBRID rules, e.g. "PERCENT(60) AND (APPROVER(12) OR QUORUM(MANAGER, 2))"
+    @Column(columnDefinition = "TEXT")
+    private String expression;
+
     public enum RuleType {
         PERCENTAGE, SPECIFIC_APPROVER, HYBRID
     }
@@ -87,10 +102,20 @@ public class ApprovalRule {
 		this.isActive = isActive;
 	}
 
+	public String getExpression() {
+		return expression;
+	}
+
+	public void setExpression(String expression) {
+		this.expression = expression;
+	}
+
 	@Override
 	public String toString() {
-		return "ApprovalRule [id=" + id + ", workflow=" + workflow + ", ruleType=" + ruleType + ", percentageRequired="
-				+ percentageRequired + ", specificApprover=" + specificApprover + ", isActive=" + isActive + "]";
+		return "ApprovalRule [id=" + id + ", workflowId=" + (workflow != null ? workflow.getId() : null) + ", ruleType="
+				+ ruleType + ", percentageRequired=" + percentageRequired + ", specificApproverId="
+				+ (specificApprover != null ? specificApprover.getId() : null) + ", isActive=" + isActive
+				+ ", expression=" + expression + "]";
 	}
     
     
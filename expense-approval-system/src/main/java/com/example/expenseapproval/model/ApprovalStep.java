@@ -5,13 +5,21 @@ package com.example.expenseapproval.model;
 
 import config.Workflow;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import java.math.BigDecimal;
 
 @Entity
-@Table(name = "approval_steps")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "approval_steps", indexes = {
+        @Index(name = "idx_approval_steps_workflow_order", columnList = "workflow_id, step_order")
+})
 public class ApprovalStep {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "approval_steps_seq")
+    @SequenceGenerator(name = "approval_steps_seq", sequenceName = "approval_steps_seq", allocationSize = 50)
     private Long id;
 
     // Step number in the sequence (e.g., 1, 2, 3)
@@ -30,6 +38,18 @@ public class ApprovalStep {
     // Optional comment or rejection reason
     private String comment;
 
+    // Specific user responsible for this step; takes precedence over role
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "approver_user_id")
+    private User approverUser;
+
+    // Amount bounds for this step; null means unbounded
+    @Column(name = "min_amount", precision = 12, scale = 2)
+    private BigDecimal minAmount;
+
+    @Column(name = "max_amount", precision = 12, scale = 2)
+    private BigDecimal maxAmount;
+
     // Relation to workflow (the parent)
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "workflow_id")
@@ -88,13 +108,27 @@ public class ApprovalStep {
         this.workflow = workflow2;
     }
 
-	public Object getApproverUser() {
-		// TODO Auto-generated method stub
-		return null;
-	}
+    public User getApproverUser() {
+        return approverUser;
+    }
+
+    public void setApproverUser(User approverUser) {
+        this.approverUser = approverUser;
+    }
+
+    public BigDecimal getMinAmount() {
+        return minAmount;
+    }
+
+    public void setMinAmount(BigDecimal minAmount) {
+        this.minAmount = minAmount;
+    }
 
-	public void setApproverUser(User orElseThrow) {
-		// TODO Auto-generated method stub
-		
-	}
+    public BigDecimal getMaxAmount() {
+        return maxAmount;
+    }
+
+    public void setMaxAmount(BigDecimal maxAmount) {
+        this.maxAmount = maxAmount;
+    }
 }
@@ -0,0 +1,184 @@
+package com.example.expenseapproval.model;
+
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Running approval counters for one expense, maintained as approvals are assigned and decided,
+ * so rule evaluation never has to rescan the expense's approvals.
+ */
+@Entity
+@Table(name = "approval_tallies")
+public class ApprovalTally {
+
+    @Id
+    @Column(name = "expense_id")
+    private Long expenseId;
+
+    // Distinct approvers that have been given an approval for this expense
+    @Column(name = "approvers_assigned", nullable = false)
+    private int approversAssigned;
+
+    @Column(name = "approved_count", nullable = false)
+    private int approvedCount;
+
+    @Column(name = "rejected_count", nullable = false)
+    private int rejectedCount;
+
+    // Sorted ids of approvers who approved, stored as a bigint[] column
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "approved_approver_ids")
+    private Long[] approvedApproverIds = new Long[0];
+
+    // Per-role counters indexed by User.Role ordinal, used by role quorum rules
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "assigned_by_role")
+    private int[] assignedByRole = new int[User.Role.values().length];
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "approved_by_role")
+    private int[] approvedByRole = new int[User.Role.values().length];
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "rejected_by_role")
+    private int[] rejectedByRole = new int[User.Role.values().length];
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    @Version
+    private Long version;
+
+    public ApprovalTally() {
+    }
+
+    public ApprovalTally(Long expenseId) {
+        this.expenseId = expenseId;
+    }
+
+    public void recordAssigned(User.Role role) {
+        approversAssigned++;
+        assignedByRole = increment(assignedByRole, role);
+        updatedAt = LocalDateTime.now();
+    }
+
+    public void recordDecision(Long approverId, User.Role role, Approval.ApprovalStatus status) {
+        if (status == Approval.ApprovalStatus.APPROVED) {
+            approvedCount++;
+            approvedByRole = increment(approvedByRole, role);
+            if (!hasApproved(approverId)) {
+                Long[] ids = Arrays.copyOf(approvedApproverIds, approvedApproverIds.length + 1);
+                ids[ids.length - 1] = approverId;
+                Arrays.sort(ids);
+                approvedApproverIds = ids;
+            }
+        } else if (status == Approval.ApprovalStatus.REJECTED) {
+            rejectedCount++;
+            rejectedByRole = increment(rejectedByRole, role);
+        }
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Returns a fresh array so Hibernate's dirty check sees the change
+    private static int[] increment(int[] byRole, User.Role role) {
+        int[] counts = Arrays.copyOf(byRole, Math.max(byRole.length, User.Role.values().length));
+        if (role != null) {
+            counts[role.ordinal()]++;
+        }
+        return counts;
+    }
+
+    public boolean hasApproved(Long approverId) {
+        return approverId != null && Arrays.binarySearch(approvedApproverIds, approverId) >= 0;
+    }
+
+    public int getPendingCount() {
+        return Math.max(0, approversAssigned - approvedCount - rejectedCount);
+    }
+
+    // ------------- Getters & Setters ----------------
+    public Long getExpenseId() {
+        return expenseId;
+    }
+
+    public void setExpenseId(Long expenseId) {
+        this.expenseId = expenseId;
+    }
+
+    public int getApproversAssigned() {
+        return approversAssigned;
+    }
+
+    public void setApproversAssigned(int approversAssigned) {
+        this.approversAssigned = approversAssigned;
+    }
+
+    public int getApprovedCount() {
+        return approvedCount;
+    }
+
+    public void setApprovedCount(int approvedCount) {
+        this.approvedCount = approvedCount;
+    }
+
+    public int getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public void setRejectedCount(int rejectedCount) {
+        this.rejectedCount = rejectedCount;
+    }
+
+    public Long[] getApprovedApproverIds() {
+        return approvedApproverIds;
+    }
+
+    public void setApprovedApproverIds(Long[] approvedApproverIds) {
+        this.approvedApproverIds = approvedApproverIds;
+    }
+
+    public int[] getAssignedByRole() {
+        return assignedByRole;
+    }
+
+    public void setAssignedByRole(int[] assignedByRole) {
+        this.assignedByRole = assignedByRole;
+    }
+
+    public int[] getApprovedByRole() {
+        return approvedByRole;
+    }
+
+    public void setApprovedByRole(int[] approvedByRole) {
+        this.approvedByRole = approvedByRole;
+    }
+
+    public int[] getRejectedByRole() {
+        return rejectedByRole;
+    }
+
+    public void setRejectedByRole(int[] rejectedByRole) {
+        this.rejectedByRole = rejectedByRole;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
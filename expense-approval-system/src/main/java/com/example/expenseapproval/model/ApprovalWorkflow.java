@@ -2,6 +2,7 @@ package com.example.expenseapproval.model;
 
 
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -12,25 +13,35 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.OrderBy;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "approval_workflows")
 @Data // Provides getters, setters, equals, hashCode, and toString
 @NoArgsConstructor // Provides a no-argument constructor
 @AllArgsConstructor // Provides a constructor with all fields
 public class ApprovalWorkflow {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "approval_workflows_seq")
+    @SequenceGenerator(name = "approval_workflows_seq", sequenceName = "approval_workflows_seq", allocationSize = 50)
     private Long id;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "company_id", nullable = false)
     private Companymodel company; // Ensure 'Company' model is correctly referenced
@@ -47,28 +58,19 @@ public class ApprovalWorkflow {
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @OneToMany(mappedBy = "workflow", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @OrderBy("stepOrder ASC") // Ensure steps are ordered
     private Set<ApprovalStep> approvalSteps;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @OneToMany(mappedBy = "workflow", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<ApprovalRule> approvalRules;
 
-	public boolean getIsManagerApprover() {
-		// TODO Auto-generated method stub
-		return false;
-	}
-
-	public void setApprovalRules(Set<ApprovalRule> collect) {
-		// TODO Auto-generated method stub
-		
-	}
-
-	public void setIsManagerApprover(Boolean isManagerApprover2) {
-		// TODO Auto-generated method stub
-		
-	}
-
     // Lombok's @Data annotation automatically generates getters, setters,
     // equals, hashCode, and toString.
     // @NoArgsConstructor and @AllArgsConstructor generate constructors.
@@ -3,20 +3,27 @@ package com.example.expenseapproval.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "audit_logs")
+@Table(name = "audit_logs", indexes = {
+        @Index(name = "idx_audit_logs_entity", columnList = "entity_type, entity_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class AuditLog {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_logs_seq")
+    @SequenceGenerator(name = "audit_logs_seq", sequenceName = "audit_logs_seq", allocationSize = 50)
     private Long id;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user; // Nullable if action is system-generated or before user login
@@ -36,9 +43,21 @@ public class AuditLog {
     @Column(name = "new_value", columnDefinition = "TEXT")
     private String newValue;
 
+    // How oldValue and newValue are encoded (AuditTrail.recordChange); null for free-text entries
+    @Enumerated(EnumType.STRING)
+    @Column(name = "value_format", length = 16)
+    private ValueFormat valueFormat;
+
     @Column(name = "ip_address", length = 45)
     private String ipAddress;
 
-    @Column(name = "created_at", updatable = false)
+    // Partition key (monthly range partitions, see V3 migration)
+    @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
+
+    public enum ValueFormat {
+        SNAPSHOT, // newValue is the entity's full state
+        DELTA, // newValue holds the changed fields only
+        TOMBSTONE // The entity was deleted; oldValue is its last state
+    }
 }
\ No newline at end of file
@@ -2,21 +2,30 @@ package com.example.expenseapproval.model; // This must be the first non-comment
 
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 import java.util.Set;
 
 @Entity
-@Table(name = "companies")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "companies", indexes = {
+        @Index(name = "idx_companies_created_id", columnList = "created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Companymodel {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "companies_seq")
+    @SequenceGenerator(name = "companies_seq", sequenceName = "companies_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, length = 100)
@@ -31,9 +40,13 @@ public class Companymodel {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "company", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<User> users;
     
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "company", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<ApprovalWorkflow> approvalWorkflows;
     
@@ -109,13 +122,7 @@ public class Companymodel {
 	@Override
 	public String toString() {
 		return "Companymodel [id=" + id + ", name=" + name + ", baseCurrency=" + baseCurrency + ", createdAt="
-				+ createdAt + ", updatedAt=" + updatedAt + ", users=" + users + ", approvalWorkflows="
-				+ approvalWorkflows + "]";
-	}
-
-	public Companymodel() {
-		super();
-		// TODO Auto-generated constructor stub
+				+ createdAt + ", updatedAt=" + updatedAt + "]";
 	}
 
 	
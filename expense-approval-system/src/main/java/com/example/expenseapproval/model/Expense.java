@@ -2,24 +2,45 @@ package com.example.expenseapproval.model;
 
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Set;
 
 @Entity
-@Table(name = "expenses")
+@NamedEntityGraph(name = FetchPlans.EXPENSE_DETAIL,
+        attributeNodes = {
+                @NamedAttributeNode("user"),
+                @NamedAttributeNode(value = "approvals", subgraph = "approvals")
+        },
+        subgraphs = @NamedSubgraph(name = "approvals", attributeNodes = @NamedAttributeNode("approver")))
+@NamedEntityGraph(name = FetchPlans.EXPENSE_TEAM, attributeNodes = @NamedAttributeNode("user"))
+@Table(name = "expenses", indexes = {
+        @Index(name = "idx_expenses_workflow_cursor", columnList = "workflow_id, workflow_step"),
+        @Index(name = "idx_expenses_created_id", columnList = "created_at, id"),
+        @Index(name = "idx_expenses_user_status", columnList = "user_id, status")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Expense {
+    // Pooled sequence ids keep expense inserts batchable (IDENTITY disables JDBC insert batching)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expenses_seq")
+    @SequenceGenerator(name = "expenses_seq", sequenceName = "expenses_seq", allocationSize = 50)
     private Long id;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -30,6 +51,11 @@ public class Expense {
     @Column(nullable = false, length = 10)
     private String currency;
 
+    // The amount converted to the company's base currency at the expense date's rate (FxRates). Set when the
+    // expense is created or edited; null until a rate is available, then filled in by BaseAmountBackfill
+    @Column(name = "amount_in_base_currency", precision = 12, scale = 2)
+    private BigDecimal amountInBaseCurrency;
+
     @Column(nullable = false, length = 50)
     private String category;
 
@@ -49,12 +75,39 @@ public class Expense {
     @Column(name = "submitted_at", updatable = false)
     private LocalDateTime submittedAt = LocalDateTime.now();
 
-    @Column(name = "created_at", updatable = false)
+    // Partition key (monthly range partitions, see V3 migration)
+    @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    @Version
+    private Long version;
+
+    // Audited changes since creation (creation itself being 0); AuditTrail.recordChange spaces full snapshots by
+    // it rather than by version, which also moves on unaudited workflow changes and is shared within a transaction
+    @Column(name = "audit_revision", nullable = false)
+    private long auditRevision;
+
+    // Workflow cursor: the workflow definition the expense was started on, the step it is waiting at
+    // (0 = manager approval, null once every step has been opened) and its still-undecided approvals.
+    // The workflow id doubles as the definition's version: workflows are never edited in place, a change
+    // creates a new one (ApprovalService.createApprovalWorkflow), so the id pins the exact steps and rules.
+    // A PENDING expense with a workflow id is held until its base-currency amount is known (startHeldWorkflow)
+    @Column(name = "workflow_id")
+    private Long workflowId;
+
+    @Column(name = "workflow_step")
+    private Integer workflowStep;
+
+    // Sorted approval ids, stored as a bigint[] column
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "outstanding_approval_ids")
+    private Long[] outstandingApprovalIds = new Long[0];
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "expense", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<Approval> approvals;
 
@@ -62,10 +115,56 @@ public class Expense {
         PENDING, APPROVED, REJECTED, IN_PROGRESS
     }
 
+    // Points the cursor at a newly opened step and adds the approvals created for it
+    public void openWorkflowStep(Integer stepOrder, Collection<Long> approvalIds) {
+        Long[] ids = Arrays.copyOf(outstandingApprovalIds, outstandingApprovalIds.length + approvalIds.size());
+        int i = outstandingApprovalIds.length;
+        for (Long approvalId : approvalIds) {
+            ids[i++] = approvalId;
+        }
+        Arrays.sort(ids);
+        workflowStep = stepOrder;
+        outstandingApprovalIds = ids; // A fresh array, so Hibernate's dirty check sees the change
+    }
+
+    public void resolveOutstandingApproval(Long approvalId) {
+        int index = Arrays.binarySearch(outstandingApprovalIds, approvalId);
+        if (index < 0) {
+            return;
+        }
+        Long[] ids = new Long[outstandingApprovalIds.length - 1];
+        System.arraycopy(outstandingApprovalIds, 0, ids, 0, index);
+        System.arraycopy(outstandingApprovalIds, index + 1, ids, index, ids.length - index);
+        outstandingApprovalIds = ids;
+    }
+
+    // To be passed to AuditTrail.recordChange with each audited change after creation
+    public long nextAuditRevision() {
+        return ++auditRevision;
+    }
+
+    // The workflow is over: nothing is awaited any more
+    public void closeWorkflowCursor() {
+        workflowStep = null;
+        outstandingApprovalIds = new Long[0];
+    }
+
 	public Long getId() {
 		return id;
 	}
 
+	public long getAuditRevision() {
+		return auditRevision;
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	public void setId(Long id) {
 		this.id = id;
 	}
@@ -86,6 +185,14 @@ public class Expense {
 		this.amount = amount;
 	}
 
+	public BigDecimal getAmountInBaseCurrency() {
+		return amountInBaseCurrency;
+	}
+
+	public void setAmountInBaseCurrency(BigDecimal amountInBaseCurrency) {
+		this.amountInBaseCurrency = amountInBaseCurrency;
+	}
+
 	public String getCurrency() {
 		return currency;
 	}
@@ -158,6 +265,30 @@ public class Expense {
 		this.updatedAt = updatedAt;
 	}
 
+	public Long getWorkflowId() {
+		return workflowId;
+	}
+
+	public void setWorkflowId(Long workflowId) {
+		this.workflowId = workflowId;
+	}
+
+	public Integer getWorkflowStep() {
+		return workflowStep;
+	}
+
+	public void setWorkflowStep(Integer workflowStep) {
+		this.workflowStep = workflowStep;
+	}
+
+	public Long[] getOutstandingApprovalIds() {
+		return outstandingApprovalIds;
+	}
+
+	public void setOutstandingApprovalIds(Long[] outstandingApprovalIds) {
+		this.outstandingApprovalIds = outstandingApprovalIds;
+	}
+
 	public Set<Approval> getApprovals() {
 		return approvals;
 	}
@@ -168,15 +299,10 @@ public class Expense {
 
 	@Override
 	public String toString() {
-		return "Expense [id=" + id + ", user=" + user + ", amount=" + amount + ", currency=" + currency + ", category="
+		return "Expense [id=" + id + ", userId=" + (user != null ? user.getId() : null) + ", amount=" + amount + ", currency=" + currency + ", category="
 				+ category + ", description=" + description + ", expenseDate=" + expenseDate + ", paidBy=" + paidBy
-				+ ", status=" + status + ", submittedAt=" + submittedAt + ", createdAt=" + createdAt + ", updatedAt="
-				+ updatedAt + ", approvals=" + approvals + "]";
-	}
-
-	public Expense() {
-		super();
-		// TODO Auto-generated constructor stub
+				+ ", status=" + status + ", workflowId=" + workflowId + ", workflowStep=" + workflowStep + ", submittedAt=" + submittedAt + ", createdAt=" + createdAt + ", updatedAt="
+				+ updatedAt + "]";
 	}
     
     
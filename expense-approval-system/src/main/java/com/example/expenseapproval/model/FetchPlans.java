@@ -0,0 +1,24 @@
+package com.example.expenseapproval.model;
+
+
+/**
+ * Names of the entity graphs declared on the entities, one per read use case. Repository methods apply them
+ * with {@code @EntityGraph}, so each listing loads its rows and the associations it renders in one query.
+ */
+public final class FetchPlans {
+
+    // Approver's inbox: each approval with its approver, expense and the expense's submitter
+    public static final String APPROVAL_INBOX = "Approval.inbox";
+
+    // Approval trail of one expense: each approval with its approver
+    public static final String APPROVAL_TRAIL = "Approval.trail";
+
+    // Expense detail: the expense with its submitter and its approvals with their approvers
+    public static final String EXPENSE_DETAIL = "Expense.detail";
+
+    // Team view: the team's expenses with their submitters
+    public static final String EXPENSE_TEAM = "Expense.team";
+
+    private FetchPlans() {
+    }
+}
@@ -3,6 +3,8 @@ package com.example.expenseapproval.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
@@ -16,6 +18,8 @@ public class PasswordResetToken {
     @EmbeddedId
     private PasswordResetTokenId id;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @MapsId("userId")
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -0,0 +1,121 @@
+package com.example.expenseapproval.model;
+
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import com.example.expenseapproval.model.Expense.ExpenseStatus;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Count and total amount of the expenses in one dashboard bucket: company, month of the expense date, submitter,
+ * category, currency and status. Rows are written only by the delta upserts of SpendAggregates, never through
+ * the entity, and read by the dashboard queries in SpendAggregateRepository.
+ */
+@Entity
+@Immutable
+@Table(name = "spend_aggregates", indexes = {
+        @Index(name = "idx_spend_aggregates_user_month", columnList = "user_id, month")
+})
+public class SpendAggregate {
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(name = "expense_count", nullable = false)
+    private long expenseCount;
+
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount;
+
+    // Sum of Expense.amountInBaseCurrency; expenses still waiting for a rate are not in it yet
+    @Column(name = "total_in_base_currency", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalInBaseCurrency;
+
+    @Embeddable
+    public static class Key implements Serializable {
+
+        @Column(name = "company_id", nullable = false)
+        private Long companyId;
+
+        // First day of the month of the expense date
+        @Column(nullable = false)
+        private LocalDate month;
+
+        @Column(name = "user_id", nullable = false)
+        private Long userId;
+
+        @Column(nullable = false, length = 50)
+        private String category;
+
+        @Column(nullable = false, length = 10)
+        private String currency;
+
+        @Enumerated(EnumType.STRING)
+        @Column(nullable = false, length = 20)
+        private ExpenseStatus status;
+
+        public Long getCompanyId() {
+            return companyId;
+        }
+
+        public LocalDate getMonth() {
+            return month;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public String getCurrency() {
+            return currency;
+        }
+
+        public ExpenseStatus getStatus() {
+            return status;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return Objects.equals(companyId, other.companyId) && Objects.equals(month, other.month)
+                    && Objects.equals(userId, other.userId) && Objects.equals(category, other.category)
+                    && Objects.equals(currency, other.currency) && status == other.status;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(companyId, month, userId, category, currency, status);
+        }
+    }
+
+    // ------------- Getters ----------------
+    public Key getKey() {
+        return key;
+    }
+
+    public long getExpenseCount() {
+        return expenseCount;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public BigDecimal getTotalInBaseCurrency() {
+        return totalInBaseCurrency;
+    }
+}
@@ -1,6 +1,5 @@
 package com.example.expenseapproval.model;
 
-a
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
@@ -9,7 +8,8 @@ import java.time.LocalDateTime;
 public class TestEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "test_table_seq")
+    @SequenceGenerator(name = "test_table_seq", sequenceName = "test_table_seq", allocationSize = 50)
     private Long id;
 
     @Column(length = 50)
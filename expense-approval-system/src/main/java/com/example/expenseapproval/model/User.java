@@ -1,21 +1,33 @@
 package com.example.expenseapproval.model;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 import java.util.Set;
 
 @Entity
-@Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_created_id", columnList = "created_at, id"),
+        @Index(name = "idx_users_company_role", columnList = "company_id, role")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "company_id", nullable = false)
     private Companymodel companies;
@@ -33,6 +45,8 @@ public class User {
     @Column(nullable = false, length = 20)
     private Role role; // ADMIN, MANAGER, EMPLOYEE
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "manager_id")
     private User manager; // Self-referencing for manager hierarchy
@@ -46,15 +60,23 @@ public class User {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<Expense> expenses;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "manager", fetch = FetchType.LAZY)
     private Set<User> subordinates; // For manager to see their direct reports
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "approver", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<Approval> approvals;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "specificApprover", fetch = FetchType.LAZY)
     private Set<ApprovalRule> approvalRules;
 
@@ -176,15 +198,10 @@ public class User {
 
 	@Override
 	public String toString() {
-		return "User [id=" + id + ", companies=" + companies + ", name=" + name + ", email=" + email + ", passwordHash="
-				+ passwordHash + ", role=" + role + ", manager=" + manager + ", isActive=" + isActive + ", createdAt="
-				+ createdAt + ", updatedAt=" + updatedAt + ", expenses=" + expenses + ", subordinates=" + subordinates
-				+ ", approvals=" + approvals + ", approvalRules=" + approvalRules + "]";
-	}
-
-	public User() {
-		super();
-		// TODO Auto-generated constructor stub
+		// Associations by id only (reading a proxy's id does not load it); collections and the hash left out
+		return "User [id=" + id + ", companyId=" + (companies != null ? companies.getId() : null) + ", name=" + name
+				+ ", email=" + email + ", role=" + role + ", managerId=" + (manager != null ? manager.getId() : null)
+				+ ", isActive=" + isActive + ", createdAt=" + createdAt + ", updatedAt=" + updatedAt + "]";
 	}
 
 	public void setCompany(Companymodel company) {
@@ -0,0 +1,27 @@
+package com.example.expenseapproval.repository;
+
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.expenseapproval.model.ApprovalOutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ApprovalOutboxRepository extends JpaRepository<ApprovalOutboxEvent, Long> {
+
+    // Expenses with unprocessed decisions that are due (not parked, not backing off after a failure), oldest first
+    @Query("select e.expenseId from ApprovalOutboxEvent e where e.processedAt is null and e.parkedAt is null "
+            + "and (e.nextAttemptAt is null or e.nextAttemptAt <= :now) group by e.expenseId order by min(e.id)")
+    List<Long> findExpenseIdsWithPendingEvents(@Param("now") LocalDateTime now, Pageable pageable);
+
+    List<ApprovalOutboxEvent> findByExpenseIdAndProcessedAtIsNullOrderByIdAsc(Long expenseId);
+
+    @Query("select e.approvalId from ApprovalOutboxEvent e where e.expenseId = :expenseId and e.processedAt is null")
+    List<Long> findPendingApprovalIdsByExpenseId(@Param("expenseId") Long expenseId);
+}
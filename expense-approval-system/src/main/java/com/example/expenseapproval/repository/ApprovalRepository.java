@@ -1,12 +1,20 @@
 package com.example.expenseapproval.repository;
 
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.expenseapproval.dto.ApprovalInboxRow;
 import com.example.expenseapproval.model.Approval;
 import com.example.expenseapproval.model.Approval.ApprovalStatus;
+import com.example.expenseapproval.model.FetchPlans;
+import com.example.expenseapproval.service.sla.PendingApprovalSla;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +23,35 @@ public interface ApprovalRepository extends JpaRepository<Approval, Long> {
     List<Approval> findByExpenseId(Long expenseId);
     Optional<Approval> findByExpenseIdAndApproverId(Long expenseId, Long approverId);
     List<Approval> findByApproverIdAndStatus(Long approverId, ApprovalStatus status);
+
+    @EntityGraph(FetchPlans.APPROVAL_INBOX)
+    List<Approval> findInboxByApproverIdAndStatusOrderByCreatedAtAsc(Long approverId, ApprovalStatus status);
+
+    @EntityGraph(FetchPlans.APPROVAL_TRAIL)
+    List<Approval> findTrailByExpenseIdOrderByCreatedAtAsc(Long expenseId);
+
+    // Inbox as projection rows; served by idx_approvals_approver_status
+    @Query("select new com.example.expenseapproval.dto.ApprovalInboxRow(a.id, a.workflowStep, a.createdAt, e.id, "
+            + "e.amount, e.currency, e.category, e.expenseDate, u.id, u.name) "
+            + "from Approval a join a.expense e join e.user u "
+            + "where a.approver.id = :approverId "
+            + "and a.status = com.example.expenseapproval.model.Approval.ApprovalStatus.PENDING "
+            + "order by a.createdAt asc, a.id asc")
+    List<ApprovalInboxRow> findInboxRows(@Param("approverId") Long approverId);
+
+    // Loads approvals together with their approver, expense and submitter in one round trip
+    @Query("select a from Approval a join fetch a.approver join fetch a.expense e join fetch e.user where a.id in :ids")
+    List<Approval> findAllWithExpenseByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Re-arms SLA timers at startup; served by idx_approvals_status
+    @Query("select new com.example.expenseapproval.service.sla.PendingApprovalSla(a.id, a.createdAt, a.slaStage) "
+            + "from Approval a where a.status = com.example.expenseapproval.model.Approval.ApprovalStatus.PENDING")
+    List<PendingApprovalSla> findPendingSla();
+
+    @Modifying(flushAutomatically = true)
+    // Bumps the version so a decision racing with this update fails its optimistic check
+    @Query("update Approval a set a.status = :newStatus, a.version = a.version + 1 where a.expense.id = :expenseId and a.status = :status")
+    int updateStatusByExpenseIdAndStatus(@Param("expenseId") Long expenseId,
+                                         @Param("status") ApprovalStatus status,
+                                         @Param("newStatus") ApprovalStatus newStatus);
 }
\ No newline at end of file
@@ -2,13 +2,18 @@ package com.example.expenseapproval.repository;
 
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.example.expenseapproval.model.ApprovalRule;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
 import java.util.List;
 
 @Repository
 public interface ApprovalRuleRepository extends JpaRepository<ApprovalRule, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<ApprovalRule> findByWorkflowIdAndIsActiveTrue(Long workflowId);
 }
\ No newline at end of file
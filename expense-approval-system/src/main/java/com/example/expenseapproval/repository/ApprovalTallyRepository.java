@@ -0,0 +1,12 @@
+package com.example.expenseapproval.repository;
+
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.expenseapproval.model.ApprovalTally;
+
+// Concurrent updates are caught by ApprovalTally's @Version column
+@Repository
+public interface ApprovalTallyRepository extends JpaRepository<ApprovalTally, Long> {
+}
@@ -2,15 +2,31 @@ package com.example.expenseapproval.repository;
 
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.expenseapproval.model.ApprovalWorkflow;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ApprovalWorkflowRepository extends JpaRepository<ApprovalWorkflow, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<ApprovalWorkflow> findByCompanyId(Long companyId);
     Optional<ApprovalWorkflow> findByCompanyIdAndName(Long companyId, String name);
+
+    // The newest one wins should several ever be active at once
+    Optional<ApprovalWorkflow> findFirstByCompanyIdAndIsActiveTrueOrderByIdDesc(Long companyId);
+
+    // A new workflow supersedes the company's others; expenses already on them keep their pinned definition
+    @Modifying(flushAutomatically = true)
+    @Query("update ApprovalWorkflow w set w.isActive = false where w.company.id = :companyId and w.id <> :workflowId and w.isActive = true")
+    int deactivateByCompanyIdAndIdNot(@Param("companyId") Long companyId, @Param("workflowId") Long workflowId);
 }
\ No newline at end of file
@@ -2,14 +2,34 @@ package com.example.expenseapproval.repository;
 
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.expenseapproval.model.AuditLog;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
+    // Read-only so that, called outside a service transaction, they can be served by a replica
+    @Transactional(readOnly = true)
     List<AuditLog> findByUserId(Long userId);
+
+    @Transactional(readOnly = true)
     List<AuditLog> findByEntityTypeAndEntityId(String entityType, Long entityId);
+
+    // Backs AuditHistory: an entity's change entries up to a point in time, from its latest snapshot then on
+    @Transactional(readOnly = true)
+    @Query("select a from AuditLog a where a.entityType = :entityType and a.entityId = :entityId "
+            + "and a.valueFormat is not null and a.createdAt <= :at "
+            + "and a.createdAt >= (select max(s.createdAt) from AuditLog s where s.entityType = :entityType "
+            + "and s.entityId = :entityId and s.createdAt <= :at "
+            + "and s.valueFormat = com.example.expenseapproval.model.AuditLog.ValueFormat.SNAPSHOT) "
+            + "order by a.createdAt, a.id")
+    List<AuditLog> findChangesSinceLatestSnapshot(@Param("entityType") String entityType,
+                                                 @Param("entityId") Long entityId,
+                                                 @Param("at") LocalDateTime at);
 }
\ No newline at end of file
@@ -2,10 +2,21 @@ package com.example.expenseapproval.repository;
 
 
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.example.expenseapproval.model.Companymodel;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface CompanyRepository extends JpaRepository<Companymodel, Long> {
+    // Keyset pages over idx_companies_created_id
+    List<Companymodel> findByOrderByCreatedAtAscIdAsc(Limit limit);
+
+    @Query("select c from Companymodel c where (c.createdAt, c.id) > (:createdAt, :id) order by c.createdAt asc, c.id asc")
+    List<Companymodel> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
 }
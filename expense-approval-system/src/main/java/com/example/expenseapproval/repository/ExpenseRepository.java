@@ -2,17 +2,121 @@ package com.example.expenseapproval.repository;
 
 
 
+import com.example.expenseapproval.dto.ExpenseExportRow;
+import com.example.expenseapproval.dto.ExpenseSummary;
 import com.example.expenseapproval.model.Expense;
 import com.example.expenseapproval.model.Expense.ExpenseStatus;
+import com.example.expenseapproval.model.FetchPlans;
+import com.example.expenseapproval.service.simulation.SimulatedExpense;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
 
+    // How far createdAt may sit from submittedAt on older rows (see streamForExport)
+    Duration CREATED_AT_SLACK = Duration.ofDays(1);
+
     // Custom queries for your service
     List<Expense> findByUserId(Long userId);
 
     List<Expense> findByUserIdAndStatus(Long userId, ExpenseStatus status);
+
+    // Keyset pages over idx_expenses_created_id
+    List<Expense> findByOrderByCreatedAtAscIdAsc(Limit limit);
+
+    // The plain createdAt bound is implied by the tuple comparison, but only it lets the planner skip
+    // the monthly partitions before the page's start
+    @Query("select e from Expense e where e.createdAt >= :createdAt and (e.createdAt, e.id) > (:createdAt, :id) "
+            + "order by e.createdAt asc, e.id asc")
+    List<Expense> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    @EntityGraph(FetchPlans.EXPENSE_DETAIL)
+    Optional<Expense> findDetailById(Long id);
+
+    // Expenses of the manager's direct reports
+    @EntityGraph(FetchPlans.EXPENSE_TEAM)
+    @Query("select e from Expense e where e.user.manager.id = :managerId order by e.submittedAt desc")
+    List<Expense> findTeamByManagerId(@Param("managerId") Long managerId);
+
+    // List rows as projections: only the listed columns are selected and no entity is managed or proxied
+    @Query("select new com.example.expenseapproval.dto.ExpenseSummary(e.id, e.amount, e.currency, e.category, "
+            + "e.expenseDate, e.status, e.submittedAt, u.id, u.name) "
+            + "from Expense e join e.user u where u.id = :userId order by e.submittedAt desc, e.id desc")
+    List<ExpenseSummary> findSummariesByUserId(@Param("userId") Long userId);
+
+    @Query("select new com.example.expenseapproval.dto.ExpenseSummary(e.id, e.amount, e.currency, e.category, "
+            + "e.expenseDate, e.status, e.submittedAt, u.id, u.name) "
+            + "from Expense e join e.user u where u.manager.id = :managerId order by e.submittedAt desc, e.id desc")
+    List<ExpenseSummary> findTeamSummariesByManagerId(@Param("managerId") Long managerId);
+
+    // "Pending at step N" reads the workflow cursor (idx_expenses_workflow_cursor), not the approvals table
+    long countByWorkflowIdAndWorkflowStepAndStatus(Long workflowId, Integer workflowStep, ExpenseStatus status);
+
+    // Forward-only cursor for ExpenseExportService: rows arrive 1000 per round trip and are read as
+    // projections, so nothing accumulates in the persistence context. Must be consumed inside a transaction.
+    // The window is repeated on the partition key, widened by CREATED_AT_SLACK (see streamForExport below).
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.example.expenseapproval.dto.ExpenseExportRow(e.id, u.id, u.email, e.amount, e.currency, "
+            + "e.amountInBaseCurrency, e.category, e.description, e.expenseDate, e.paidBy, e.status, e.submittedAt) "
+            + "from Expense e join e.user u "
+            + "where u.companies.id = :companyId and e.submittedAt >= :from and e.submittedAt < :to "
+            + "and e.createdAt >= :createdFrom and e.createdAt < :createdTo "
+            + "order by e.submittedAt, e.id")
+    Stream<ExpenseExportRow> streamForExport(@Param("companyId") Long companyId,
+                                             @Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to,
+                                             @Param("createdFrom") LocalDateTime createdFrom,
+                                             @Param("createdTo") LocalDateTime createdTo);
+
+    // New expenses get submittedAt == createdAt, but rows written before that (and through the entity's field
+    // initializers) took two separate clock readings, so the createdAt bounds that prune partitions are widened
+    // by a day on each side; the submittedAt window alone decides which rows are returned
+    default Stream<ExpenseExportRow> streamForExport(Long companyId, LocalDateTime from, LocalDateTime to) {
+        return streamForExport(companyId, from, to, from.minus(CREATED_AT_SLACK), to.plus(CREATED_AT_SLACK));
+    }
+
+    // Snapshot rows for WorkflowSimulator: the routing amount (see ApprovalService) and the submitter's current
+    // manager of each expense. Expenses still without a base-currency amount are left out, as ApprovalService
+    // holds their workflows too
+    @Query("select new com.example.expenseapproval.service.simulation.SimulatedExpense(e.id, "
+            + "e.amountInBaseCurrency, m.id) "
+            + "from Expense e join e.user u left join u.manager m "
+            + "where u.companies.id = :companyId and e.submittedAt >= :from and e.submittedAt < :to "
+            + "and e.amountInBaseCurrency is not null "
+            + "and e.createdAt >= :createdFrom and e.createdAt < :createdTo")
+    List<SimulatedExpense> findSimulatedByCompanyIdAndSubmittedAtBetween(@Param("companyId") Long companyId,
+                                                                        @Param("from") LocalDateTime from,
+                                                                        @Param("to") LocalDateTime to,
+                                                                        @Param("createdFrom") LocalDateTime createdFrom,
+                                                                        @Param("createdTo") LocalDateTime createdTo);
+
+    // Same createdAt slack as streamForExport
+    default List<SimulatedExpense> findSimulatedByCompanyIdAndSubmittedAtBetween(Long companyId, LocalDateTime from,
+                                                                                LocalDateTime to) {
+        return findSimulatedByCompanyIdAndSubmittedAtBetween(companyId, from, to, from.minus(CREATED_AT_SLACK),
+                to.plus(CREATED_AT_SLACK));
+    }
+
+    // Expenses still without a base-currency amount, in id order, for BaseAmountBackfill
+    // (over the partial index idx_expenses_base_amount_missing)
+    @EntityGraph(FetchPlans.EXPENSE_TEAM)
+    List<Expense> findByAmountInBaseCurrencyIsNullAndIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
@@ -0,0 +1,65 @@
+package com.example.expenseapproval.repository;
+
+
+import com.example.expenseapproval.dto.CategorySpend;
+import com.example.expenseapproval.dto.MonthlySpend;
+import com.example.expenseapproval.dto.StatusCount;
+import com.example.expenseapproval.dto.UserSpend;
+import com.example.expenseapproval.model.SpendAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Dashboard reads over the spend buckets; the cost follows the number of buckets, not of expenses.
+// totalAmount is in the row's currency; totalInBaseCurrency is in the company's base currency, so rows of different
+// currencies can be added up.
+// Month bounds are first days of months, from inclusive and to exclusive. Rows are written by SpendAggregates.
+@Repository
+public interface SpendAggregateRepository extends JpaRepository<SpendAggregate, SpendAggregate.Key> {
+
+    @Query("select new com.example.expenseapproval.dto.StatusCount(a.key.status, sum(a.expenseCount)) "
+            + "from SpendAggregate a where a.key.companyId = :companyId "
+            + "group by a.key.status order by a.key.status")
+    List<StatusCount> findStatusCounts(@Param("companyId") Long companyId);
+
+    @Query("select new com.example.expenseapproval.dto.MonthlySpend(a.key.month, a.key.status, a.key.currency, "
+            + "sum(a.expenseCount), sum(a.totalAmount), sum(a.totalInBaseCurrency)) "
+            + "from SpendAggregate a where a.key.companyId = :companyId and a.key.month >= :from and a.key.month < :to "
+            + "group by a.key.month, a.key.status, a.key.currency "
+            + "order by a.key.month, a.key.status, a.key.currency")
+    List<MonthlySpend> findMonthlySpend(@Param("companyId") Long companyId,
+                                        @Param("from") LocalDate from,
+                                        @Param("to") LocalDate to);
+
+    @Query("select new com.example.expenseapproval.dto.CategorySpend(a.key.category, a.key.status, a.key.currency, "
+            + "sum(a.expenseCount), sum(a.totalAmount), sum(a.totalInBaseCurrency)) "
+            + "from SpendAggregate a where a.key.companyId = :companyId and a.key.month >= :from and a.key.month < :to "
+            + "group by a.key.category, a.key.status, a.key.currency "
+            + "order by a.key.category, a.key.status, a.key.currency")
+    List<CategorySpend> findCategorySpend(@Param("companyId") Long companyId,
+                                          @Param("from") LocalDate from,
+                                          @Param("to") LocalDate to);
+
+    @Query("select new com.example.expenseapproval.dto.UserSpend(a.key.userId, a.key.status, a.key.currency, "
+            + "sum(a.expenseCount), sum(a.totalAmount), sum(a.totalInBaseCurrency)) "
+            + "from SpendAggregate a where a.key.companyId = :companyId and a.key.month >= :from and a.key.month < :to "
+            + "group by a.key.userId, a.key.status, a.key.currency "
+            + "order by a.key.userId, a.key.status, a.key.currency")
+    List<UserSpend> findUserSpend(@Param("companyId") Long companyId,
+                                  @Param("from") LocalDate from,
+                                  @Param("to") LocalDate to);
+
+    // One submitter's months, over idx_spend_aggregates_user_month
+    @Query("select new com.example.expenseapproval.dto.MonthlySpend(a.key.month, a.key.status, a.key.currency, "
+            + "sum(a.expenseCount), sum(a.totalAmount), sum(a.totalInBaseCurrency)) "
+            + "from SpendAggregate a where a.key.userId = :userId and a.key.month >= :from and a.key.month < :to "
+            + "group by a.key.month, a.key.status, a.key.currency "
+            + "order by a.key.month, a.key.status, a.key.currency")
+    List<MonthlySpend> findMonthlySpendByUserId(@Param("userId") Long userId,
+                                                @Param("from") LocalDate from,
+                                                @Param("to") LocalDate to);
+}
@@ -2,13 +2,56 @@ package com.example.expenseapproval.repository;
 
 
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import com.example.expenseapproval.dto.UserDirectoryRow;
 import com.example.expenseapproval.model.User;
+import com.example.expenseapproval.model.User.Role;
+import com.example.expenseapproval.service.simulation.SimulatedUser;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Served from the query cache; any write to users invalidates it
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByEmail(String email);
+
+    // Keyset pages over idx_users_created_id
+    List<User> findByOrderByCreatedAtAscIdAsc(Limit limit);
+
+    @Query("select u from User u where (u.createdAt, u.id) > (:createdAt, :id) order by u.createdAt asc, u.id asc")
+    List<User> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    // Directory rows with the manager's name; left join so users without a manager are listed too
+    @Query("select new com.example.expenseapproval.dto.UserDirectoryRow(u.id, u.name, u.email, u.role, m.id, m.name, "
+            + "u.isActive) from User u left join u.manager m where u.companies.id = :companyId order by u.name, u.id")
+    List<UserDirectoryRow> findDirectoryByCompanyId(@Param("companyId") Long companyId);
+
+    // Managers are fetched too, since starting a workflow reads the submitter's manager
+    @Query("select u from User u left join fetch u.manager where u.id in :ids")
+    List<User> findAllWithManagerByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Backs ApproverIndex: ids only, for one company and role
+    @Query("select u.id from User u where u.companies.id = :companyId and u.role = :role and u.isActive = true order by u.id")
+    List<Long> findActiveIdsByCompanyIdAndRole(@Param("companyId") Long companyId, @Param("role") Role role);
+
+    // Snapshot rows for WorkflowSimulator
+    @Query("select new com.example.expenseapproval.service.simulation.SimulatedUser(u.id, u.role, u.isActive) "
+            + "from User u where u.companies.id = :companyId")
+    List<SimulatedUser> findSimulatedByCompanyId(@Param("companyId") Long companyId);
+
+    @Query("select new com.example.expenseapproval.service.simulation.SimulatedUser(u.id, u.role, u.isActive) "
+            + "from User u where u.id in :ids")
+    List<SimulatedUser> findSimulatedByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -5,38 +5,54 @@ package com.example.expenseapproval.service;
 
 //FIX: Added missing imports for model classes
 
-//FIX: Added static imports for enum constants to be used in the switch statement
-//(Assuming the enum is named RuleType and is nested within ApprovalRule)
-import static com.example.expenseapproval.model.ApprovalRule.RuleType.HYBRID;
-import static com.example.expenseapproval.model.ApprovalRule.RuleType.PERCENTAGE;
-import static com.example.expenseapproval.model.ApprovalRule.RuleType.SPECIFIC_APPROVER;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.expenseapproval.config.ReadYourWrites;
+import com.example.expenseapproval.dto.ApprovalDecision;
+import com.example.expenseapproval.dto.ApprovalDecisionResult;
+import com.example.expenseapproval.dto.ApprovalInboxRow;
+import com.example.expenseapproval.dto.StepPendingCount;
 import com.example.expenseapproval.model.Approval;
 import com.example.expenseapproval.model.Approval.ApprovalStatus;
+import com.example.expenseapproval.model.ApprovalOutboxEvent;
 import com.example.expenseapproval.model.ApprovalRule;
 import com.example.expenseapproval.model.ApprovalStep;
+import com.example.expenseapproval.model.ApprovalTally;
 import com.example.expenseapproval.model.ApprovalWorkflow;
+import com.example.expenseapproval.model.Companymodel;
 import com.example.expenseapproval.model.Expense;
 import com.example.expenseapproval.model.Expense.ExpenseStatus;
 import com.example.expenseapproval.model.User;
+import com.example.expenseapproval.repository.ApprovalOutboxRepository;
 import com.example.expenseapproval.repository.ApprovalRepository;
 import com.example.expenseapproval.repository.ApprovalRuleRepository;
 import com.example.expenseapproval.repository.ApprovalStepRepository;
+import com.example.expenseapproval.repository.ApprovalTallyRepository;
 import com.example.expenseapproval.repository.ApprovalWorkflowRepository;
 import com.example.expenseapproval.repository.CompanyRepository;
 import com.example.expenseapproval.repository.ExpenseRepository;
 import com.example.expenseapproval.repository.UserRepository;
+import com.example.expenseapproval.service.CompiledWorkflow.CompiledStep;
+import com.example.expenseapproval.service.audit.AuditStates;
+import com.example.expenseapproval.service.audit.AuditTrail;
+import com.example.expenseapproval.service.rules.ApprovalState;
+import com.example.expenseapproval.service.rules.RuleExpressionParser;
+import com.example.expenseapproval.service.rules.RuleOutcome;
+import com.example.expenseapproval.service.sla.SlaEscalationScheduler;
 
 import config.ResourceNotFoundException;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -63,35 +79,111 @@ public class ApprovalService {
  @Autowired
  private CompanyRepository companyRepository; // Needed for createApprovalWorkflow
 
+ @Autowired
+ private WorkflowDefinitionCache workflowDefinitionCache;
+
+ @Autowired
+ private ApprovalTallyRepository approvalTallyRepository;
+
+ @Autowired
+ private ApproverIndex approverIndex;
+
+ @Autowired
+ private ApprovalOutboxRepository approvalOutboxRepository;
+
+ @Autowired
+ private OptimisticRetry optimisticRetry;
+
+ @Autowired
+ private SlaEscalationScheduler slaEscalationScheduler;
+
+ @Autowired
+ private ReadYourWrites readYourWrites;
+
+ @Autowired
+ private SpendAggregates spendAggregates;
+
+ @Autowired
+ private AuditTrail auditTrail;
+
+ // Fetch plan: FetchPlans.APPROVAL_TRAIL
  public List<Approval> getApprovalsByExpenseId(Long expenseId) {
-     return approvalRepository.findByExpenseId(expenseId);
+     return approvalRepository.findTrailByExpenseIdOrderByCreatedAtAsc(expenseId);
  }
 
+ // Fetch plan: FetchPlans.APPROVAL_INBOX, so rendering the inbox issues no further selects.
+ // Read-only listings may be served by a replica (ReplicaRoutingDataSource), except right after the approver's own decisions
+ @Transactional(readOnly = true)
  public List<Approval> getPendingApprovalsForApprover(Long approverId) {
-     return approvalRepository.findByApproverIdAndStatus(approverId, ApprovalStatus.PENDING);
+     readYourWrites.readAs(approverId);
+     return approvalRepository.findInboxByApproverIdAndStatusOrderByCreatedAtAsc(approverId, ApprovalStatus.PENDING);
+ }
+
+ // Inbox read model: one projection query, oldest first
+ @Transactional(readOnly = true)
+ public List<ApprovalInboxRow> getApprovalInbox(Long approverId) {
+     readYourWrites.readAs(approverId);
+     return approvalRepository.findInboxRows(approverId);
  }
 
  @Transactional
  public void initiateApprovalProcess(Expense expense) {
-     // Find an active approval workflow for the company
-     // FIX: Changed getCompanies() to getCompany(). Calling .getId() on a collection is invalid.
-     Optional<ApprovalWorkflow> workflowOpt = approvalWorkflowRepository.findByCompanyId(expense.getUser().getCompany().getId())
-             .stream()
-//           .filter(ApprovalWorkflow::getIsActive)
-             .findFirst(); // For simplicity, take the first active one
+     startWorkflow(expense);
+ }
+
+ // Starts the workflow for a batch of freshly submitted expenses in one transaction; the approval and
+ // tally inserts it produces are flushed as JDBC batches
+ @Transactional
+ public void initiateApprovalProcesses(List<Expense> expenses) {
+     for (Expense expense : expenses) {
+         startWorkflow(expense);
+     }
+ }
+
+ private void startWorkflow(Expense expense) {
+     // Find the active approval workflow for the company (served from the compiled cache)
+     Optional<CompiledWorkflow> workflowOpt = workflowDefinitionCache.getActiveWorkflow(companyIdOf(expense));
 
      if (workflowOpt.isEmpty()) {
-         expense.setStatus(ExpenseStatus.APPROVED); // Auto-approve if no workflow defined
+         moveTo(expense, ExpenseStatus.APPROVED); // Auto-approve if no workflow defined
+         expenseRepository.save(expense);
+         return;
+     }
+
+     CompiledWorkflow workflow = workflowOpt.get();
+     expense.setWorkflowId(workflow.workflowId()); // Pinned: later definition changes do not reroute it
+     if (expense.getAmountInBaseCurrency() == null) {
+         // Step amount ranges are in the base currency: the expense stays PENDING on its pinned workflow until
+         // its rate is known, then startHeldWorkflow runs (from BaseAmountBackfill or an edit)
          expenseRepository.save(expense);
          return;
      }
+     runWorkflow(expense, workflow);
+ }
+
+ // Starts the workflow of an expense that was held for want of a base-currency amount, on the definition pinned
+ // at submission (the active one if that has since disappeared). Does nothing for any other expense
+ @Transactional
+ public void startHeldWorkflow(Expense expense) {
+     if (expense.getStatus() != ExpenseStatus.PENDING || expense.getWorkflowId() == null
+             || expense.getAmountInBaseCurrency() == null) {
+         return;
+     }
+     Optional<CompiledWorkflow> pinned = workflowDefinitionCache.getWorkflow(companyIdOf(expense), expense.getWorkflowId());
+     if (pinned.isPresent()) {
+         runWorkflow(expense, pinned.get());
+     } else {
+         startWorkflow(expense);
+     }
+ }
 
-     ApprovalWorkflow workflow = workflowOpt.get();
-     expense.setStatus(ExpenseStatus.IN_PROGRESS);
+ private void runWorkflow(Expense expense, CompiledWorkflow workflow) {
+     moveTo(expense, ExpenseStatus.IN_PROGRESS);
      expenseRepository.save(expense);
+     ApprovalTally tally = approvalTallyRepository.save(new ApprovalTally(expense.getId()));
 
      // Step 1: Manager Approval (if required)
-     if (workflow.getIsManagerApprover() && expense.getUser().getManager() != null) {
+     if (workflow.managerApprover() && expense.getUser().getManager() != null) {
          User manager = expense.getUser().getManager();
          Approval managerApproval = new Approval();
          managerApproval.setExpense(expense);
@@ -99,14 +191,21 @@ public class ApprovalService {
          managerApproval.setWorkflowStep(0); // Representing manager approval as step 0
          managerApproval.setStatus(ApprovalStatus.PENDING);
          approvalRepository.save(managerApproval);
+         slaEscalationScheduler.trackAfterCommit(managerApproval);
+         tally.recordAssigned(manager.getRole());
+         expense.openWorkflowStep(0, List.of(managerApproval.getId()));
      } else {
          // If no manager approval, or manager not found, move to next step
-         processNextApprovalStep(expense, workflow, 1);
+         openNextStep(expense, workflow, 1, tally);
      }
  }
 
- @Transactional
+ // Each attempt runs in its own transaction; a concurrent change to the approval (@Version) re-runs it
  public Approval processApproval(Long approvalId, Long approverId, ApprovalStatus status, String remarks) {
+     return optimisticRetry.inTransaction(tx -> recordApproval(approvalId, approverId, status, remarks));
+ }
+
+ private Approval recordApproval(Long approvalId, Long approverId, ApprovalStatus status, String remarks) {
      Approval approval = approvalRepository.findById(approvalId)
              .orElseThrow(() -> new ResourceNotFoundException("Approval request not found with id " + approvalId));
 
@@ -118,226 +217,273 @@ public class ApprovalService {
          throw new IllegalArgumentException("Approval request has already been processed.");
      }
 
+     // Only the decision and its outbox event are written here; WorkflowAdvancer moves the expense on
+     recordDecision(approval, status, remarks);
+     approvalRepository.flush(); // Version check first, see queueDecision
+     queueDecision(approval, status);
+     readYourWrites.recordWriteAfterCommit(approverId);
+
+     return approval;
+ }
+
+ // Bulk variant of processApproval: one query loads every target approval with its expense, and the
+ // decision updates and outbox inserts are flushed as JDBC batches (see hibernate.jdbc.batch_size).
+ // Invalid items are reported in their result instead of failing the whole request. On a version conflict
+ // the whole batch is re-run, and items decided concurrently are then reported as already processed.
+ public List<ApprovalDecisionResult> processApprovals(Long approverId, List<ApprovalDecision> decisions) {
+     if (decisions.isEmpty()) {
+         return List.of();
+     }
+     return optimisticRetry.inTransaction(tx -> recordApprovals(approverId, decisions));
+ }
+
+ private List<ApprovalDecisionResult> recordApprovals(Long approverId, List<ApprovalDecision> decisions) {
+     Set<Long> approvalIds = decisions.stream().map(ApprovalDecision::approvalId).collect(Collectors.toSet());
+     Map<Long, Approval> approvals = approvalRepository.findAllWithExpenseByIdIn(approvalIds).stream()
+             .collect(Collectors.toMap(Approval::getId, Function.identity()));
+
+     List<ApprovalDecisionResult> results = new ArrayList<>(decisions.size());
+     List<Approval> decided = new ArrayList<>(decisions.size());
+     for (ApprovalDecision decision : decisions) {
+         Approval approval = approvals.get(decision.approvalId());
+         String error = validateDecision(approval, approverId, decision);
+         if (error != null) {
+             results.add(ApprovalDecisionResult.failed(decision.approvalId(), error));
+             continue;
+         }
+
+         recordDecision(approval, decision.status(), decision.remarks());
+         decided.add(approval);
+         results.add(ApprovalDecisionResult.processed(approval.getId(), approval.getExpense().getStatus()));
+     }
+     approvalRepository.flush(); // One batch of version-checked updates, then one batch of outbox inserts
+     for (Approval approval : decided) {
+         queueDecision(approval, approval.getStatus());
+     }
+     readYourWrites.recordWriteAfterCommit(approverId);
+     return results;
+ }
+
+ private String validateDecision(Approval approval, Long approverId, ApprovalDecision decision) {
+     if (approval == null) {
+         return "Approval request not found with id " + decision.approvalId();
+     }
+     if (!approval.getApprover().getId().equals(approverId)) {
+         return "User " + approverId + " is not authorized to approve this request.";
+     }
+     if (!approval.getStatus().equals(ApprovalStatus.PENDING)) {
+         return "Approval request has already been processed.";
+     }
+     // Decisions on an expense its rules have already finalized are pointless
+     ExpenseStatus expenseStatus = approval.getExpense().getStatus();
+     if (expenseStatus == ExpenseStatus.APPROVED || expenseStatus == ExpenseStatus.REJECTED) {
+         return "Expense " + approval.getExpense().getId() + " has already been finalized.";
+     }
+     if (decision.status() != ApprovalStatus.APPROVED && decision.status() != ApprovalStatus.REJECTED) {
+         return "Decision must be APPROVED or REJECTED.";
+     }
+     return null;
+ }
+
+ private void recordDecision(Approval approval, ApprovalStatus status, String remarks) {
      approval.setStatus(status);
      approval.setRemarks(remarks);
      approval.setApprovedAt(LocalDateTime.now());
      approvalRepository.save(approval);
+     slaEscalationScheduler.cancelAfterCommit(approval.getId());
+     auditTrail.record(approval.getApprover().getId(), "APPROVAL_DECIDED", "Approval", approval.getId(),
+             ApprovalStatus.PENDING.name(), remarks != null ? status.name() + ": " + remarks : status.name());
+ }
+
+ // Only after the decided approvals have been flushed: Hibernate flushes inserts before updates, so otherwise
+ // a second transaction deciding the same approval would hit the outbox's unique approval_id (an integrity
+ // error) before its stale @Version update could fail as the optimistic conflict that OptimisticRetry handles
+ private void queueDecision(Approval approval, ApprovalStatus status) {
+     approvalOutboxRepository.save(new ApprovalOutboxEvent(approval.getExpense().getId(), approval.getId(), status));
+ }
+
+ // Called by WorkflowAdvancer for one expense. Each event is marked processed in the same transaction that
+ // applies it, and the tally, expense and events are all version-checked: if another worker (on any
+ // instance) advanced the expense concurrently, this attempt rolls back and is re-run against fresh state,
+ // so every decision is applied exactly once, in outbox order, without holding row locks.
+ public int advancePendingDecisions(Long expenseId) {
+     return optimisticRetry.inTransaction(tx -> applyPendingDecisions(expenseId));
+ }
+
+ private int applyPendingDecisions(Long expenseId) {
+     List<ApprovalOutboxEvent> events;
+     Optional<Expense> expenseOpt = expenseRepository.findById(expenseId);
+     if (expenseOpt.isEmpty()) {
+         events = approvalOutboxRepository.findByExpenseIdAndProcessedAtIsNullOrderByIdAsc(expenseId);
+     } else {
+         Expense expense = expenseOpt.get();
+         ApprovalTally tally = tallyFor(expense);
+         if (expense.getWorkflowId() == null && expense.getStatus() == ExpenseStatus.IN_PROGRESS) {
+             rebuildCursor(expense); // Started before expenses carried a workflow cursor
+         }
+         events = approvalOutboxRepository.findByExpenseIdAndProcessedAtIsNullOrderByIdAsc(expenseId);
+         for (ApprovalOutboxEvent event : events) {
+             // Decisions that arrive after the expense was finalized change nothing
+             if (expense.getStatus() != ExpenseStatus.APPROVED && expense.getStatus() != ExpenseStatus.REJECTED) {
+                 Approval approval = approvalRepository.findById(event.getApprovalId())
+                         .orElseThrow(() -> new ResourceNotFoundException("Approval request not found with id " + event.getApprovalId()));
+                 advance(approval, event.getDecision(), tally);
+             }
+         }
+     }
+
+     LocalDateTime now = LocalDateTime.now();
+     for (ApprovalOutboxEvent event : events) {
+         event.setProcessedAt(now);
+     }
+     return events.size();
+ }
+
+ private void advance(Approval approval, ApprovalStatus status, ApprovalTally tally) {
+     tally.recordDecision(approval.getApprover().getId(), approval.getApprover().getRole(), status);
 
      Expense expense = approval.getExpense();
+     expense.resolveOutstandingApproval(approval.getId());
 
      if (status.equals(ApprovalStatus.REJECTED)) {
-         expense.setStatus(ExpenseStatus.REJECTED);
+         moveTo(expense, ExpenseStatus.REJECTED);
+         expense.closeWorkflowCursor();
+         approvalRepository.updateStatusByExpenseIdAndStatus(expense.getId(), ApprovalStatus.PENDING, ApprovalStatus.SKIPPED);
          expenseRepository.save(expense);
          // Optionally, notify employee
-         return approval;
+         return;
      }
 
      // If approved, check if there are more steps or if final approval
      // This is where complex workflow logic comes in
-     handlePostApprovalLogic(expense, approval);
-
-     return approval;
+     handlePostApprovalLogic(expense, approval, tally);
  }
 
- private void handlePostApprovalLogic(Expense expense, Approval currentApproval) {
-     // Find the workflow for the expense
-     // FIX: Changed getCompanies() to getCompany().
-     Optional<ApprovalWorkflow> workflowOpt = approvalWorkflowRepository.findByCompanyId(expense.getUser().getCompany().getId())
-             .stream()
-             .filter(ApprovalWorkflow::getIsActive)
-             .findFirst();
+ private void handlePostApprovalLogic(Expense expense, Approval currentApproval, ApprovalTally tally) {
+     // The workflow the expense was started on
+     Optional<CompiledWorkflow> workflowOpt = workflowDefinitionCache.getWorkflow(companyIdOf(expense), expense.getWorkflowId());
 
      if (workflowOpt.isEmpty()) {
-         expense.setStatus(ExpenseStatus.APPROVED);
+         moveTo(expense, ExpenseStatus.APPROVED);
+         expense.closeWorkflowCursor();
          expenseRepository.save(expense);
          return;
      }
 
-     ApprovalWorkflow workflow = workflowOpt.get();
-
-     // If current approval was the manager approval (step 0)
-     if (currentApproval.getWorkflowStep() != null && currentApproval.getWorkflowStep() == 0) {
-         processNextApprovalStep(expense, workflow, 1); // Move to the first defined step
-         return;
-     }
-
-     // Check sequential steps
-     List<ApprovalStep> allSteps = approvalStepRepository.findByWorkflowIdOrderByStepOrderAsc(workflow.getId());
-     Optional<ApprovalStep> currentWorkflowStep = allSteps.stream()
-             .filter(step -> step.getStepOrder().equals(currentApproval.getWorkflowStep()))
-             .findFirst();
-
-     int nextStepOrder = currentWorkflowStep.map(step -> step.getStepOrder() + 1).orElse(1);
+     CompiledWorkflow workflow = workflowOpt.get();
+     Integer cursorStep = expense.getWorkflowStep();
 
-     if (nextStepOrder <= allSteps.size()) {
-         // There are more sequential steps
-         processNextApprovalStep(expense, workflow, nextStepOrder);
+     if (cursorStep == null) {
+         // Every step is open, so any decision may settle the conditional rules
+         applyConditionalApprovalRules(expense, workflow, tally);
+     } else if (cursorStep.equals(currentApproval.getWorkflowStep())) {
+         // An approval at the step the expense waits at moves it on (the manager step 0 leads to step 1)
+         openNextStep(expense, workflow, cursorStep + 1, tally);
      } else {
-         // All sequential steps are done, apply conditional rules if any
-         applyConditionalApprovalRules(expense, workflow);
+         // A late decision on an earlier step only leaves the outstanding set
+         expenseRepository.save(expense);
      }
  }
 
- private void processNextApprovalStep(Expense expense, ApprovalWorkflow workflow, int stepOrder) {
-     List<ApprovalStep> steps = approvalStepRepository.findByWorkflowIdOrderByStepOrderAsc(workflow.getId());
-     Optional<ApprovalStep> nextStepOpt = steps.stream()
-             .filter(step -> step.getStepOrder().equals(stepOrder))
-             .findFirst();
-
-     if (nextStepOpt.isPresent()) {
-         ApprovalStep nextStep = nextStepOpt.get();
-
-         // Determine approvers for this step
-         Set<User> potentialApprovers = determineApproversForStep(nextStep, expense);
-
-         if (potentialApprovers.isEmpty()) {
-             // If no approvers found for this step, skip or auto-approve based on policy
-             // For now, let's just move to the next step if possible
-             processNextApprovalStep(expense, workflow, stepOrder + 1);
+ // Opens the first step from fromStepOrder on that has someone new to ask and points the cursor at it;
+ // steps without approvers are passed over. Once no step is left, the conditional rules decide.
+ // Steps whose amount range excludes the expense never get here: the range index has already left them out.
+ private void openNextStep(Expense expense, CompiledWorkflow workflow, int fromStepOrder, ApprovalTally tally) {
+     for (CompiledStep step : workflow.stepsFor(routingAmountOf(expense)).tailMap(fromStepOrder, true).values()) {
+         List<Long> opened = assignApprovers(expense, step, tally);
+         if (!opened.isEmpty()) {
+             expense.openWorkflowStep(step.stepOrder(), opened);
+             moveTo(expense, ExpenseStatus.IN_PROGRESS); // Keep in progress
+             expenseRepository.save(expense);
              return;
          }
+     }
 
-         for (User approver : potentialApprovers) {
-             // Check if this approver has already approved/rejected this expense in a previous step
-             Optional<Approval> existingApproval = approvalRepository.findByExpenseIdAndApproverId(expense.getId(), approver.getId());
-             if (existingApproval.isPresent() && !existingApproval.get().getStatus().equals(ApprovalStatus.PENDING)) {
-                 // This approver already acted, skip creating a new pending approval for them
-                 continue;
-             }
+     // No more sequential steps, apply conditional rules
+     expense.setWorkflowStep(null);
+     applyConditionalApprovalRules(expense, workflow, tally);
+ }
 
-             Approval newApproval = new Approval();
-             newApproval.setExpense(expense);
-             newApproval.setApprover(approver);
-             newApproval.setWorkflowStep(nextStep.getStepOrder());
-             newApproval.setStatus(ApprovalStatus.PENDING);
-             approvalRepository.save(newApproval);
+ // Creates the step's approvals and returns their ids; empty when the step has nobody new to ask
+ private List<Long> assignApprovers(Expense expense, CompiledStep step, ApprovalTally tally) {
+     // Determine approvers for this step (approver id -> role)
+     Map<Long, User.Role> potentialApprovers = determineApproversForStep(step, expense);
+
+     List<Long> opened = new ArrayList<>(potentialApprovers.size());
+     for (Map.Entry<Long, User.Role> approver : potentialApprovers.entrySet()) {
+         // Check if this approver already has an approval for this expense from a previous step
+         // (nothing to look up while the tally shows no approver was ever assigned)
+         Optional<Approval> existingApproval = tally.getApproversAssigned() == 0
+                 ? Optional.empty()
+                 : approvalRepository.findByExpenseIdAndApproverId(expense.getId(), approver.getKey());
+         if (existingApproval.isPresent()) {
+             // Already acted or already waiting on them; a second row would double-count them in the tally
+             continue;
          }
-         expense.setStatus(ExpenseStatus.IN_PROGRESS); // Keep in progress
-         expenseRepository.save(expense);
-     } else {
-         // No more sequential steps, apply conditional rules
-         applyConditionalApprovalRules(expense, workflow);
+
+         Approval newApproval = new Approval();
+         newApproval.setExpense(expense);
+         newApproval.setApprover(userRepository.getReferenceById(approver.getKey())); // Reference only, no load
+         newApproval.setWorkflowStep(step.stepOrder());
+         newApproval.setStatus(ApprovalStatus.PENDING);
+         approvalRepository.save(newApproval);
+         slaEscalationScheduler.trackAfterCommit(newApproval);
+         tally.recordAssigned(approver.getValue());
+         opened.add(newApproval.getId());
      }
+     return opened;
  }
 
- private Set<User> determineApproversForStep(ApprovalStep step, Expense expense) {
+ private Map<Long, User.Role> determineApproversForStep(CompiledStep step, Expense expense) {
      // Logic to find approvers based on role, specific user, or hierarchy
-     Set<User> approvers = new java.util.HashSet<>();
+     // Only called for steps whose amount range covers the expense (see CompiledWorkflow.stepsFor)
+     Map<Long, User.Role> approvers = new java.util.LinkedHashMap<>();
 
-     if (step.getApproverUser() != null) {
+     if (step.approverUserId() != null) {
          // Specific user is set
-         approvers.add(step.getApproverUser());
-     } else if (step.getApproverUser() != null) {
-         // Role-based approvers within the company
-         // FIX: Changed getCompanies() to getCompany().
-         approvers.addAll(userRepository.findByCompanyId(expense.getUser().getCompany().getId())
-                 .stream()
-                 .filter(u -> u.getRole().equals(step.getApproverRole()))
-                 .collect(Collectors.toSet()));
+         userRepository.findById(step.approverUserId())
+                 .ifPresent(user -> approvers.put(user.getId(), user.getRole()));
+     } else if (step.role() != null) {
+         // Role-based approvers within the company, from the per-company role index
+         User.Role role = step.approverRole();
+         if (role != null) {
+             for (Long approverId : approverIndex.approverIds(companyIdOf(expense), role)) {
+                 approvers.put(approverId, role);
+             }
+         } else {
+             System.err.println("Warning: Approval step " + step.id() + " names unknown role " + step.role() + ".");
+         }
      } else {
          // Fallback or error if no approver defined for step
          // Could throw an exception or log a warning
-         System.err.println("Warning: Approval step " + step.getId() + " has no defined approver user or role.");
-     }
-
-     // Filter by amount thresholds if defined
-     if (step.getMinAmount() != null && expense.getAmount().compareTo(step.getMinAmount()) < 0) {
-         approvers.clear(); // Expense amount is below minimum for this step, no approval needed
-     }
-     if (step.getMaxAmount() != null && expense.getAmount().compareTo(step.getMaxAmount()) > 0) {
-         approvers.clear(); // Expense amount is above maximum for this step, no approval needed
+         System.err.println("Warning: Approval step " + step.id() + " has no defined approver user or role.");
      }
-     // This logic needs careful consideration for how to handle threshold rules:
-     // - Should an expense within the threshold require approval?
-     // - Should an expense *outside* the threshold be auto-approved or require a different flow?
-     // Current simple implementation clears approvers if outside threshold.
-     // A more robust system would involve matching workflows/steps to amount ranges.
 
      return approvers;
  }
 
- private void applyConditionalApprovalRules(Expense expense, ApprovalWorkflow workflow) {
-     List<ApprovalRule> rules = approvalRuleRepository.findByWorkflowIdAndIsActiveTrue(workflow.getId());
-     List<Approval> allApprovalsForExpense = approvalRepository.findByExpenseId(expense.getId());
-     List<Approval> approvedApprovals = allApprovalsForExpense.stream()
-             .filter(a -> a.getStatus().equals(ApprovalStatus.APPROVED))
-             .toList();
-
-     boolean fullyApproved = false;
-
-     for (ApprovalRule rule : rules) {
-         switch (rule.getRuleType()) {
-             case PERCENTAGE:
-                 if (rule.getPercentageRequired() != null) {
-                     long totalApproversInWorkflow = allApprovalsForExpense.stream()
-                             .map(Approval::getApprover)
-                             .distinct()
-                             .count();
-                     if (totalApproversInWorkflow > 0) {
-                         double approvalPercentage = (double) approvedApprovals.size() / totalApproversInWorkflow * 100;
-                         if (approvalPercentage >= rule.getPercentageRequired().doubleValue()) {
-                             fullyApproved = true;
-                         }
-                     }
-                 }
-                 break;
-             case SPECIFIC_APPROVER:
-                 if (rule.getSpecificApprover() != null) {
-                     boolean specificApproverApproved = approvedApprovals.stream()
-                             .anyMatch(a -> a.getApprover().getId().equals(rule.getSpecificApprover().getId()));
-                     if (specificApproverApproved) {
-                         fullyApproved = true;
-                     }
-                 }
-                 break;
-             case HYBRID:
-                 // This rule type typically combines others, requiring more complex logic
-                 // Example: (PERCENTAGE_X AND SPECIFIC_APPROVER_Y) OR (PERCENTAGE_Z)
-                 // This would need a more sophisticated rule engine,
-                 // For now, let's assume it implies a combination that needs to be manually implemented
-                 // or configured. A simple hybrid might be: "60% approval AND CFO approval"
-                 // Implementing this accurately requires more input on the desired hybrid logic.
-                 // For a placeholder, let's assume it requires both if both percentage and specific approver are set
-                 boolean hybridPassed = true;
-                 if (rule.getPercentageRequired() != null) {
-                     long totalApproversInWorkflow = allApprovalsForExpense.stream().map(Approval::getApprover).distinct().count();
-                     if (totalApproversInWorkflow > 0) {
-                         double approvalPercentage = (double) approvedApprovals.size() / totalApproversInWorkflow * 100;
-                         if (approvalPercentage < rule.getPercentageRequired().doubleValue()) {
-                             hybridPassed = false;
-                         }
-                     }
-                 }
-                 if (rule.getSpecificApprover() != null) {
-                     boolean specificApproverApproved = approvedApprovals.stream()
-                             .anyMatch(a -> a.getApprover().getId().equals(rule.getSpecificApprover().getId()));
-                     if (!specificApproverApproved) {
-                         hybridPassed = false;
-                     }
-                 }
-                 if (hybridPassed) {
-                     fullyApproved = true;
-                 }
-                 break;
-         }
-         if (fullyApproved) break; // If any rule leads to full approval, stop checking
+ private void applyConditionalApprovalRules(Expense expense, CompiledWorkflow workflow, ApprovalTally tally) {
+     // The workflow's rules were compiled into one condition; it is evaluated against the running tally,
+     // so the expense's approvals are not reloaded
+     RuleOutcome outcome = workflow.approvalCondition().evaluate(ApprovalState.of(tally));
+
+     switch (outcome) {
+         case APPROVED:
+             moveTo(expense, ExpenseStatus.APPROVED);
+             break;
+         case IMPOSSIBLE:
+             // No combination of the pending decisions can satisfy the rules any more
+             moveTo(expense, ExpenseStatus.REJECTED);
+             break;
+         default:
+             moveTo(expense, ExpenseStatus.IN_PROGRESS); // Still awaiting someone
+             break;
      }
 
-     if (fullyApproved) {
-         expense.setStatus(ExpenseStatus.APPROVED);
-     } else {
-         // If no rule led to full approval and all steps are exhausted, it might remain IN_PROGRESS
-         // or implicitly be rejected depending on business logic.
-         // For now, if no rule explicitly approves it, and no more steps, it stays in_progress.
-         // This is a decision point for business logic.
-         // For simplicity, let's assume if all steps completed and no rule approved, it's rejected by default.
-         // Or it could mean awaiting more specific conditions.
-         // Let's set it to REJECTED if no approval rule matches and no more steps.
-         if (approvedApprovals.size() < allApprovalsForExpense.size()) { // Not all approvals are done
-             expense.setStatus(ExpenseStatus.IN_PROGRESS); // Still awaiting someone
-         } else if (!fullyApproved) { // All approvals processed, but not fully approved by rules
-             expense.setStatus(ExpenseStatus.REJECTED);
-         }
+     if (outcome != RuleOutcome.UNDECIDED) {
+         // Decided before everyone acted: close the approvals nobody needs to act on any more
+         expense.closeWorkflowCursor();
+         approvalRepository.updateStatusByExpenseIdAndStatus(expense.getId(), ApprovalStatus.PENDING, ApprovalStatus.SKIPPED);
      }
      expenseRepository.save(expense);
  }
@@ -345,7 +491,7 @@ public class ApprovalService {
  // Helper method to create ApprovalWorkflow
  @Transactional
  public ApprovalWorkflow createApprovalWorkflow(Long companyId, String name, Boolean isManagerApprover, List<ApprovalStep> steps, List<ApprovalRule> rules) {
-     Company company = companyRepository.findById(companyId)
+     Companymodel company = companyRepository.findById(companyId)
              .orElseThrow(() -> new ResourceNotFoundException("Company not found with id " + companyId));
 
      ApprovalWorkflow workflow = new ApprovalWorkflow();
@@ -355,6 +501,7 @@ public class ApprovalService {
      workflow.setIsActive(true);
      workflow.setCreatedAt(LocalDateTime.now());
      workflow = approvalWorkflowRepository.save(workflow);
+     approvalWorkflowRepository.deactivateByCompanyIdAndIdNot(companyId, workflow.getId());
 
      // Save steps
      for (int i = 0; i < steps.size(); i++) {
@@ -368,11 +515,14 @@ public class ApprovalService {
          }
          approvalStepRepository.save(step);
      }
-     workflow.setApprovalRules(steps.stream().collect(Collectors.toSet()));
+     workflow.setApprovalSteps(steps.stream().collect(Collectors.toSet()));
 
 
      // Save rules
      for (ApprovalRule rule : rules) {
+         if (rule.getExpression() != null && !rule.getExpression().isBlank()) {
+             RuleExpressionParser.parse(rule.getExpression()); // Reject malformed expressions up front
+         }
          rule.setWorkflow(workflow);
          if (rule.getSpecificApprover() != null && rule.getSpecificApprover().getId() != null) {
              rule.setSpecificApprover(userRepository.findById(rule.getSpecificApprover().getId())
@@ -382,12 +532,103 @@ public class ApprovalService {
      }
      workflow.setApprovalRules(rules.stream().collect(Collectors.toSet()));
 
+     // Publish the new definition to the advancement paths only once it is committed
+     workflowDefinitionCache.refreshAfterCommit(companyId);
 
      return workflow;
  }
 
+ // "Pending at step N" for the company's active workflow, manager step 0 first: one count per step on the
+ // expense cursor (idx_expenses_workflow_cursor), never the approvals. Expenses still running on a superseded
+ // workflow are not included; they carry that workflow's id
+ @Transactional(readOnly = true)
+ public List<StepPendingCount> getPendingCountsByStep(Long companyId) {
+     companyRepository.findById(companyId)
+             .orElseThrow(() -> new ResourceNotFoundException("Company not found with id " + companyId));
+     Optional<CompiledWorkflow> workflowOpt = workflowDefinitionCache.getActiveWorkflow(companyId);
+     if (workflowOpt.isEmpty()) {
+         return List.of();
+     }
+     CompiledWorkflow workflow = workflowOpt.get();
+     List<Integer> stepOrders = new ArrayList<>();
+     if (workflow.managerApprover()) {
+         stepOrders.add(0);
+     }
+     stepOrders.addAll(workflow.stepsByOrder().keySet());
+     List<StepPendingCount> counts = new ArrayList<>(stepOrders.size());
+     for (Integer stepOrder : stepOrders) {
+         counts.add(new StepPendingCount(stepOrder, expenseRepository.countByWorkflowIdAndWorkflowStepAndStatus(
+                 workflow.workflowId(), stepOrder, ExpenseStatus.IN_PROGRESS)));
+     }
+     return counts;
+ }
+
  @Transactional
  public List<ApprovalWorkflow> getWorkflowsByCompany(Long companyId) {
      return approvalWorkflowRepository.findByCompanyId(companyId);
  }
+
+ // The expense's tally, created for expenses that entered the workflow before tallies existed
+ private ApprovalTally tallyFor(Expense expense) {
+     return approvalTallyRepository.findById(expense.getId())
+             .orElseGet(() -> rebuildTally(expense));
+ }
+
+ private ApprovalTally rebuildTally(Expense expense) {
+     ApprovalTally tally = new ApprovalTally(expense.getId());
+     // Decisions still queued in the outbox are counted when the advancer applies them
+     Set<Long> queued = new HashSet<>(approvalOutboxRepository.findPendingApprovalIdsByExpenseId(expense.getId()));
+     for (Approval existing : approvalRepository.findByExpenseId(expense.getId())) {
+         tally.recordAssigned(existing.getApprover().getRole());
+         if (!queued.contains(existing.getId())) {
+             tally.recordDecision(existing.getApprover().getId(), existing.getApprover().getRole(), existing.getStatus());
+         }
+     }
+     return approvalTallyRepository.save(tally);
+ }
+
+ // Derives the cursor of an in-flight expense from its approvals: the latest step it reached, and the
+ // approvals that are undecided or whose decision is still queued for the advancer
+ private void rebuildCursor(Expense expense) {
+     workflowDefinitionCache.getActiveWorkflow(companyIdOf(expense))
+             .ifPresent(workflow -> expense.setWorkflowId(workflow.workflowId()));
+     Set<Long> queued = new HashSet<>(approvalOutboxRepository.findPendingApprovalIdsByExpenseId(expense.getId()));
+     Integer latestStep = null;
+     List<Long> outstanding = new ArrayList<>();
+     for (Approval existing : approvalRepository.findByExpenseId(expense.getId())) {
+         if (existing.getWorkflowStep() != null && (latestStep == null || existing.getWorkflowStep() > latestStep)) {
+             latestStep = existing.getWorkflowStep();
+         }
+         if (existing.getStatus() == ApprovalStatus.PENDING || queued.contains(existing.getId())) {
+             outstanding.add(existing.getId());
+         }
+     }
+     expense.openWorkflowStep(latestStep, outstanding);
+ }
+
+ // Every expense status change goes through here, so the spend aggregates follow it
+ private void moveTo(Expense expense, ExpenseStatus status) {
+     ExpenseStatus from = expense.getStatus();
+     Map<String, String> before = from != status ? AuditStates.of(expense) : null;
+     expense.setStatus(status);
+     spendAggregates.statusChanged(expense, from);
+     if (before != null) {
+         auditTrail.recordChange(null, "EXPENSE_STATUS_CHANGED", "Expense", expense.getId(), expense.nextAuditRevision(), before,
+                 AuditStates.of(expense));
+     }
+ }
+
+ // Step amount ranges are in the company's base currency, so an amount in any other currency is never compared
+ // with them. Workflows only start once the base amount is known (startWorkflow); this only fails for an expense
+ // started before that rule, and its advancement is retried until BaseAmountBackfill converts it
+ private BigDecimal routingAmountOf(Expense expense) {
+     if (expense.getAmountInBaseCurrency() == null) {
+         throw new IllegalStateException("Expense " + expense.getId() + " has no base-currency amount to route on yet.");
+     }
+     return expense.getAmountInBaseCurrency();
+ }
+
+ private Long companyIdOf(Expense expense) {
+     return expense.getUser().getCompanies().getId();
+ }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.example.expenseapproval.service;
+
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.expenseapproval.model.User.Role;
+import com.example.expenseapproval.repository.UserRepository;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ids of the active users holding each role, per company, for role-based approval steps.
+ * Entries are loaded with one targeted query on first use and dropped after any user change commits.
+ * Each entry carries the company's generation from before its query ran, and invalidation bumps the generation
+ * first, so a list loaded before a user change committed is never served after it, even if it is installed late.
+ */
+@Component
+public class ApproverIndex {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private record CompanyRole(Long companyId, Role role) {
+    }
+
+    private record Entry(long generation, List<Long> ids) {
+    }
+
+    private final ConcurrentMap<CompanyRole, Entry> approverIds = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public List<Long> approverIds(Long companyId, Role role) {
+        CompanyRole key = new CompanyRole(companyId, role);
+        long generation = generation(companyId).get();
+        Entry cached = approverIds.get(key);
+        if (cached != null && cached.generation() == generation) {
+            return cached.ids();
+        }
+        Entry loaded = new Entry(generation,
+                List.copyOf(userRepository.findActiveIdsByCompanyIdAndRole(companyId, role)));
+        // A concurrent load may have seen a newer generation; keep whichever is newer
+        approverIds.merge(key, loaded, (existing, fresh) -> fresh.generation() >= existing.generation() ? fresh : existing);
+        return loaded.ids();
+    }
+
+    // Drops every role entry of the company once the current transaction commits (immediately if there is none)
+    public void invalidateAfterCommit(Long companyId) {
+        if (companyId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(companyId);
+                }
+            });
+        } else {
+            invalidate(companyId);
+        }
+    }
+
+    public void invalidate(Long companyId) {
+        generation(companyId).incrementAndGet(); // Before the removal, so loads already under way are not served
+        approverIds.keySet().removeIf(key -> key.companyId().equals(companyId));
+    }
+
+    private AtomicLong generation(Long companyId) {
+        return generations.computeIfAbsent(companyId, id -> new AtomicLong());
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.expenseapproval.dto.CursorPage;
 import com.example.expenseapproval.model.Companymodel;
 import com.example.expenseapproval.repository.CompanyRepository;
 
@@ -17,8 +18,23 @@ public class CompanyService {
     @Autowired
     private CompanyRepository companyRepository;
 
-    public List<Companymodel> getAllCompanies() {
-        return companyRepository.findAll();
+    @Autowired
+    private KeysetPaging keysetPaging;
+
+    @Autowired
+    private SpendAggregates spendAggregates;
+
+    // Keyset-paginated by (createdAt, id); pass the previous page's token to continue, null to start
+    public CursorPage<Companymodel> listCompanies(String pageToken, Integer pageSize) {
+        int size = keysetPaging.pageSize(pageSize);
+        List<Companymodel> rows;
+        if (pageToken == null) {
+            rows = companyRepository.findByOrderByCreatedAtAscIdAsc(keysetPaging.probe(size));
+        } else {
+            KeysetPaging.Key after = keysetPaging.decode(pageToken);
+            rows = companyRepository.findPageAfter(after.createdAt(), after.id(), keysetPaging.probe(size));
+        }
+        return keysetPaging.page(rows, size, Companymodel::getCreatedAt, Companymodel::getId);
     }
 
     public Companymodel getCompanyById(Long id) {
@@ -42,6 +58,7 @@ public class CompanyService {
     @Transactional
     public void deleteCompany(Long id) {
         Companymodel company = getCompanyById(id);
+        spendAggregates.companyDeleted(id); // Its users and their expenses go with it
         companyRepository.delete(company);
     }
 }
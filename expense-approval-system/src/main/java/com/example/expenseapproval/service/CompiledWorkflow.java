@@ -0,0 +1,130 @@
+package com.example.expenseapproval.service;
+
+
+import com.example.expenseapproval.model.ApprovalRule;
+import com.example.expenseapproval.model.ApprovalRule.RuleType;
+import com.example.expenseapproval.model.ApprovalStep;
+import com.example.expenseapproval.model.ApprovalWorkflow;
+import com.example.expenseapproval.model.User;
+import com.example.expenseapproval.service.rules.RuleExpression;
+import com.example.expenseapproval.service.rules.RuleExpressionParser;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable snapshot of a company's active approval workflow.
+ * Holds plain values only (no JPA entities), so it can be shared between requests and threads.
+ * The active rules are compiled once into {@code approvalCondition}: the expense is approved when any rule holds,
+ * and the steps' amount ranges into {@code stepsByAmount}.
+ */
+public record CompiledWorkflow(Long workflowId,
+                               Long companyId,
+                               String name,
+                               boolean managerApprover,
+                               NavigableMap<Integer, CompiledStep> stepsByOrder,
+                               StepRangeIndex stepsByAmount,
+                               List<CompiledRule> rules,
+                               RuleExpression approvalCondition) {
+
+    public record CompiledStep(Long id, int stepOrder, String role, Long approverUserId,
+                               BigDecimal minAmount, BigDecimal maxAmount) {
+
+        // The step's role, or null when it names none that exists
+        public User.Role approverRole() {
+            if (role == null) {
+                return null;
+            }
+            for (User.Role candidate : User.Role.values()) {
+                if (candidate.name().equalsIgnoreCase(role)) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+    }
+
+    public record CompiledRule(Long id, RuleType ruleType, BigDecimal percentageRequired, Long specificApproverId,
+                               String expression) {
+    }
+
+    public static CompiledWorkflow compile(ApprovalWorkflow workflow, List<ApprovalStep> steps, List<ApprovalRule> rules) {
+        TreeMap<Integer, CompiledStep> stepsByOrder = new TreeMap<>();
+        for (ApprovalStep step : steps) {
+            // Only the id is read from the lazy approver proxy, so this does not initialize it
+            Long approverUserId = step.getApproverUser() != null ? step.getApproverUser().getId() : null;
+            stepsByOrder.put(step.getStepOrder(), new CompiledStep(step.getId(), step.getStepOrder(), step.getRole(),
+                    approverUserId, step.getMinAmount(), step.getMaxAmount()));
+        }
+
+        List<CompiledRule> compiledRules = rules.stream()
+                .map(rule -> new CompiledRule(rule.getId(), rule.getRuleType(), rule.getPercentageRequired(),
+                        rule.getSpecificApprover() != null ? rule.getSpecificApprover().getId() : null,
+                        rule.getExpression()))
+                .toList();
+
+        NavigableMap<Integer, CompiledStep> orderedSteps = Collections.unmodifiableNavigableMap(stepsByOrder);
+        return new CompiledWorkflow(workflow.getId(),
+                workflow.getCompany().getId(),
+                workflow.getName(),
+                Boolean.TRUE.equals(workflow.getIsManagerApprover()),
+                orderedSteps,
+                StepRangeIndex.build(orderedSteps),
+                compiledRules,
+                compileCondition(compiledRules));
+    }
+
+    static RuleExpression compileCondition(List<CompiledRule> rules) {
+        List<RuleExpression> alternatives = new ArrayList<>();
+        for (CompiledRule rule : rules) {
+            RuleExpression expression = toExpression(rule);
+            if (expression != null) {
+                alternatives.add(expression);
+            }
+        }
+        if (alternatives.isEmpty()) {
+            // No usable rule: every assigned approver has to approve
+            return new RuleExpression.Percentage(BigDecimal.valueOf(100));
+        }
+        return alternatives.size() == 1 ? alternatives.get(0) : new RuleExpression.Or(List.copyOf(alternatives));
+    }
+
+    // Rules missing the attribute their type needs are skipped, as before
+    private static RuleExpression toExpression(CompiledRule rule) {
+        RuleExpression percentage = rule.percentageRequired() != null
+                ? new RuleExpression.Percentage(rule.percentageRequired()) : null;
+        RuleExpression approver = rule.specificApproverId() != null
+                ? new RuleExpression.SpecificApprover(rule.specificApproverId()) : null;
+
+        switch (rule.ruleType()) {
+            case PERCENTAGE:
+                return percentage;
+            case SPECIFIC_APPROVER:
+                return approver;
+            case HYBRID:
+                if (rule.expression() != null && !rule.expression().isBlank()) {
+                    return RuleExpressionParser.parse(rule.expression());
+                }
+                // Legacy hybrid rule: percentage AND specific approver, whichever are set
+                List<RuleExpression> parts = new ArrayList<>();
+                if (percentage != null) {
+                    parts.add(percentage);
+                }
+                if (approver != null) {
+                    parts.add(approver);
+                }
+                return new RuleExpression.And(List.copyOf(parts));
+            default:
+                return null;
+        }
+    }
+
+    // The steps that apply to an expense of this amount, by step order
+    public NavigableMap<Integer, CompiledStep> stepsFor(BigDecimal amount) {
+        return stepsByAmount.stepsFor(amount);
+    }
+}
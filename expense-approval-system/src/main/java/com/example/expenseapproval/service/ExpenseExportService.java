@@ -0,0 +1,130 @@
+package com.example.expenseapproval.service;
+
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.expenseapproval.dto.ExpenseExportRow;
+import com.example.expenseapproval.repository.ExpenseRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams a company's expenses for a period to CSV or JSON lines.
+ * Rows come from a forward-only database cursor (see ExpenseRepository.streamForExport) and are written to
+ * the output as they arrive, so heap use does not grow with the size of the export. A web layer can hand
+ * its response stream straight to {@link #export}, e.g. from a StreamingResponseBody.
+ */
+@Service
+public class ExpenseExportService {
+
+    public enum ExportFormat {
+        CSV, JSON_LINES
+    }
+
+    private static final String[] CSV_HEADER = {
+            "id", "user_id", "user_email", "amount", "currency", "amount_in_base_currency", "category", "description",
+            "expense_date", "paid_by", "status", "submitted_at"
+    };
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    // Exports expenses submitted in [from, to); returns the number of rows written. The output is flushed, not closed.
+    // The transaction keeps the PostgreSQL cursor open (it only streams with auto-commit off).
+    @Transactional(readOnly = true)
+    public long export(Long companyId, LocalDateTime from, LocalDateTime to, ExportFormat format, OutputStream out) {
+        try (Stream<ExpenseExportRow> rows = expenseRepository.streamForExport(companyId, from, to)) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            long written = format == ExportFormat.CSV ? writeCsv(rows.iterator(), writer) : writeJsonLines(rows.iterator(), writer);
+            writer.flush();
+            return written;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Expense export failed", e);
+        }
+    }
+
+    private static long writeCsv(Iterator<ExpenseExportRow> rows, Writer writer) throws IOException {
+        writer.write(String.join(",", CSV_HEADER));
+        writer.write("\r\n");
+        long written = 0;
+        while (rows.hasNext()) {
+            ExpenseExportRow row = rows.next();
+            writeCsvField(writer, row.id());
+            writeCsvField(writer, row.userId());
+            writeCsvField(writer, row.userEmail());
+            writeCsvField(writer, row.amount() != null ? row.amount().toPlainString() : null);
+            writeCsvField(writer, row.currency());
+            writeCsvField(writer, row.amountInBaseCurrency() != null ? row.amountInBaseCurrency().toPlainString() : null);
+            writeCsvField(writer, row.category());
+            writeCsvField(writer, row.description());
+            writeCsvField(writer, row.expenseDate());
+            writeCsvField(writer, row.paidBy());
+            writeCsvField(writer, row.status());
+            writer.write(csv(row.submittedAt()));
+            writer.write("\r\n");
+            written++;
+        }
+        return written;
+    }
+
+    private static void writeCsvField(Writer writer, Object value) throws IOException {
+        writer.write(csv(value));
+        writer.write(',');
+    }
+
+    // RFC 4180 quoting: fields holding a separator, quote or line break are quoted, quotes doubled
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    private static long writeJsonLines(Iterator<ExpenseExportRow> rows, Writer writer) throws IOException {
+        long written = 0;
+        try (JsonGenerator json = JSON.createGenerator(writer)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+            while (rows.hasNext()) {
+                ExpenseExportRow row = rows.next();
+                json.writeStartObject();
+                json.writeNumberField("id", row.id());
+                json.writeNumberField("userId", row.userId());
+                json.writeStringField("userEmail", row.userEmail());
+                json.writeNumberField("amount", row.amount());
+                json.writeStringField("currency", row.currency());
+                json.writeNumberField("amountInBaseCurrency", row.amountInBaseCurrency());
+                json.writeStringField("category", row.category());
+                json.writeStringField("description", row.description());
+                json.writeStringField("expenseDate", row.expenseDate() != null ? row.expenseDate().toString() : null);
+                json.writeStringField("paidBy", row.paidBy());
+                json.writeStringField("status", row.status() != null ? row.status().name() : null);
+                json.writeStringField("submittedAt", row.submittedAt() != null ? row.submittedAt().toString() : null);
+                json.writeEndObject();
+                json.flush();
+                writer.write('\n');
+                written++;
+            }
+        }
+        return written;
+    }
+}
@@ -7,18 +7,34 @@ package com.example.expenseapproval.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.expenseapproval.config.ReadYourWrites;
+import com.example.expenseapproval.dto.CursorPage;
+import com.example.expenseapproval.dto.ExpenseSummary;
 import com.example.expenseapproval.model.Expense;
 import com.example.expenseapproval.model.Expense.ExpenseStatus;
 import com.example.expenseapproval.model.User;
 import com.example.expenseapproval.repository.ExpenseRepository;
 import com.example.expenseapproval.repository.UserRepository;
+import com.example.expenseapproval.service.audit.AuditStates;
+import com.example.expenseapproval.service.audit.AuditTrail;
+import com.example.expenseapproval.service.fx.FxRates;
 
 import config.ResourceNotFoundException;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ExpenseService {
@@ -29,8 +45,45 @@ public class ExpenseService {
     @Autowired
     private UserRepository userRepository; // To validate user exists
 
-    public List<Expense> getAllExpenses() {
-        return expenseRepository.findAll();
+    @Autowired
+    private ApprovalService approvalService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private KeysetPaging keysetPaging;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Autowired
+    private SpendAggregates spendAggregates;
+
+    @Autowired
+    private FxRates fxRates;
+
+    @Autowired
+    private AuditTrail auditTrail;
+
+    // Expenses per transaction for bulk submission
+    private static final int SUBMIT_CHUNK_SIZE = 500;
+
+    // Keyset-paginated by (createdAt, id); pass the previous page's token to continue, null to start
+    @Transactional(readOnly = true)
+    public CursorPage<Expense> listExpenses(String pageToken, Integer pageSize) {
+        int size = keysetPaging.pageSize(pageSize);
+        List<Expense> rows;
+        if (pageToken == null) {
+            rows = expenseRepository.findByOrderByCreatedAtAscIdAsc(keysetPaging.probe(size));
+        } else {
+            KeysetPaging.Key after = keysetPaging.decode(pageToken);
+            rows = expenseRepository.findPageAfter(after.createdAt(), after.id(), keysetPaging.probe(size));
+        }
+        return keysetPaging.page(rows, size, Expense::getCreatedAt, Expense::getId);
     }
 
     public Expense getExpenseById(Long id) {
@@ -38,14 +91,33 @@ public class ExpenseService {
                 .orElseThrow(() -> new ResourceNotFoundException("Expense not found with id " + id));
     }
 
+    // Fetch plan: FetchPlans.EXPENSE_DETAIL
+    public Expense getExpenseDetail(Long id) {
+        return expenseRepository.findDetailById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Expense not found with id " + id));
+    }
+
+    @Transactional(readOnly = true)
     public List<Expense> getExpensesByUserId(Long userId) {
+        readYourWrites.readAs(userId);
         // Ensure user exists before fetching expenses
         userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id " + userId));
         return expenseRepository.findByUserId(userId);
     }
 
+    // Read model for listings: summary rows only, nothing lazy to trip over once the session is gone
+    @Transactional(readOnly = true)
+    public List<ExpenseSummary> getExpenseSummariesByUserId(Long userId) {
+        readYourWrites.readAs(userId);
+        userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id " + userId));
+        return expenseRepository.findSummariesByUserId(userId);
+    }
+
+    @Transactional(readOnly = true)
     public List<Expense> getExpensesByUserIdAndStatus(Long userId, ExpenseStatus status) {
+        readYourWrites.readAs(userId);
         userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id " + userId));
         return expenseRepository.findByUserIdAndStatus(userId, status);
@@ -54,14 +126,79 @@ public class ExpenseService {
     @Transactional
     public Expense createExpense(Expense expense) {
         // Validate user exists
-        userRepository.findById(expense.getUser().getId())
+        User user = userRepository.findById(expense.getUser().getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Submitting User not found with id " + expense.getUser().getId()));
+        expense.setUser(user); // The base currency and the spend buckets come from the submitter's company
+        convertToBaseCurrency(expense);
 
         expense.setStatus(ExpenseStatus.PENDING); // New expenses are always pending
-        expense.setSubmittedAt(LocalDateTime.now());
-        expense.setCreatedAt(LocalDateTime.now());
-        expense.setUpdatedAt(LocalDateTime.now());
-        return expenseRepository.save(expense);
+        // One timestamp: submittedAt == createdAt lets submittedAt windows also bound the partition key
+        LocalDateTime now = LocalDateTime.now();
+        expense.setSubmittedAt(now);
+        expense.setCreatedAt(now);
+        expense.setUpdatedAt(now);
+        readYourWrites.recordWriteAfterCommit(expense.getUser().getId());
+        Expense saved = expenseRepository.save(expense);
+        spendAggregates.added(saved);
+        auditTrail.recordChange(user.getId(), "EXPENSE_CREATED", "Expense", saved.getId(), saved.getAuditRevision(), null,
+                AuditStates.of(saved));
+        return saved;
+    }
+
+    // Bulk submission for card feeds and imports. The feed is consumed in chunks; each chunk validates its
+    // submitters with one IN query, inserts its expenses in JDBC batches and starts their workflows, then
+    // commits and is cleared from the persistence context, so memory stays flat however long the feed is.
+    // A chunk with an unknown submitter fails as a whole; chunks committed before it are kept.
+    public int submitExpenses(Iterator<Expense> expenses) {
+        int submitted = 0;
+        List<Expense> chunk = new ArrayList<>(SUBMIT_CHUNK_SIZE);
+        while (expenses.hasNext()) {
+            chunk.add(expenses.next());
+            if (chunk.size() == SUBMIT_CHUNK_SIZE) {
+                submitted += submitChunk(chunk);
+                chunk = new ArrayList<>(SUBMIT_CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            submitted += submitChunk(chunk);
+        }
+        return submitted;
+    }
+
+    private int submitChunk(List<Expense> chunk) {
+        return transactionTemplate.execute(status -> {
+            Set<Long> userIds = chunk.stream()
+                    .map(expense -> expense.getUser().getId())
+                    .collect(Collectors.toCollection(TreeSet::new));
+            Map<Long, User> users = userRepository.findAllWithManagerByIdIn(userIds).stream()
+                    .collect(Collectors.toMap(User::getId, Function.identity()));
+            if (users.size() < userIds.size()) {
+                userIds.removeAll(users.keySet());
+                throw new ResourceNotFoundException("Submitting User not found with id " + userIds);
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            for (Expense expense : chunk) {
+                expense.setUser(users.get(expense.getUser().getId()));
+                convertToBaseCurrency(expense);
+                expense.setStatus(ExpenseStatus.PENDING); // New expenses are always pending
+                expense.setSubmittedAt(now);
+                expense.setCreatedAt(now);
+                expense.setUpdatedAt(now);
+            }
+            List<Expense> saved = expenseRepository.saveAll(chunk);
+            userIds.forEach(readYourWrites::recordWriteAfterCommit);
+            for (Expense expense : saved) {
+                spendAggregates.added(expense); // Moved on by the status changes of the workflow start
+                auditTrail.recordChange(expense.getUser().getId(), "EXPENSE_CREATED", "Expense", expense.getId(),
+                        expense.getAuditRevision(), null, AuditStates.of(expense));
+            }
+            approvalService.initiateApprovalProcesses(saved);
+
+            entityManager.flush();
+            entityManager.clear();
+            return saved.size();
+        });
     }
 
     @Transactional
@@ -73,13 +210,21 @@ public class ExpenseService {
             throw new IllegalArgumentException("Cannot update an expense that is not in PENDING status.");
         }
 
+        spendAggregates.removed(expense); // Amount, currency, category or month may change
+        Map<String, String> before = AuditStates.of(expense);
         expense.setAmount(expenseDetails.getAmount());
         expense.setCurrency(expenseDetails.getCurrency());
         expense.setCategory(expenseDetails.getCategory());
         expense.setDescription(expenseDetails.getDescription());
         expense.setExpenseDate(expenseDetails.getExpenseDate());
         expense.setPaidBy(expenseDetails.getPaidBy());
+        convertToBaseCurrency(expense);
         expense.setUpdatedAt(LocalDateTime.now());
+        spendAggregates.added(expense);
+        auditTrail.recordChange(expense.getUser().getId(), "EXPENSE_UPDATED", "Expense", id, expense.nextAuditRevision(), before,
+                AuditStates.of(expense));
+        approvalService.startHeldWorkflow(expense); // The edit may have made the amount convertible
+        readYourWrites.recordWriteAfterCommit(expense.getUser().getId());
         return expenseRepository.save(expense);
     }
 
@@ -90,22 +235,43 @@ public class ExpenseService {
         if (!expense.getStatus().equals(ExpenseStatus.PENDING)) {
             throw new IllegalArgumentException("Cannot delete an expense that is not in PENDING status.");
         }
+        readYourWrites.recordWriteAfterCommit(expense.getUser().getId());
+        spendAggregates.removed(expense);
+        auditTrail.recordChange(expense.getUser().getId(), "EXPENSE_DELETED", "Expense", id, expense.nextAuditRevision(),
+                AuditStates.of(expense), null);
         expenseRepository.delete(expense);
     }
 
     // Manager functionality: Get expenses submitted by subordinates
+    // Fetch plan: FetchPlans.EXPENSE_TEAM, one query for the whole team
+    @Transactional(readOnly = true)
     public List<Expense> getTeamExpenses(Long managerId) {
+        readYourWrites.readAs(managerId);
+        requireManager(managerId);
+
+        // Fetch expenses for all subordinates
+        return expenseRepository.findTeamByManagerId(managerId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ExpenseSummary> getTeamExpenseSummaries(Long managerId) {
+        readYourWrites.readAs(managerId);
+        requireManager(managerId);
+        return expenseRepository.findTeamSummariesByManagerId(managerId);
+    }
+
+    // Converted once, when the expense is written, so routing, aggregates and reports read the stored amount.
+    // Without a rate for the expense date it stays null until BaseAmountBackfill converts it.
+    private void convertToBaseCurrency(Expense expense) {
+        expense.setAmountInBaseCurrency(fxRates.toBaseCurrency(expense).orElse(null));
+    }
+
+    private void requireManager(Long managerId) {
         User manager = userRepository.findById(managerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Manager not found with id " + managerId));
 
         if (!manager.getRole().equals(User.Role.MANAGER) && !manager.getRole().equals(User.Role.ADMIN)) {
             throw new IllegalArgumentException("User with id " + managerId + " is not a manager or admin.");
         }
-
-        Optional<User> subordinates = userRepository.findById(managerId);
-        // Fetch expenses for all subordinates
-        return subordinates.stream()
-                .flatMap(sub -> expenseRepository.findByUserId(sub.getId()).stream())
-                .toList();
     }
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.example.expenseapproval.service;
+
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.example.expenseapproval.dto.CursorPage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Shared plumbing for listings paginated by (createdAt, id): page-size limits and continuation tokens.
+ * A token is the opaque, URL-safe encoding of the last row's key; the next page starts strictly after it,
+ * so every page is one index range scan however deep the caller has paged.
+ */
+@Component
+public class KeysetPaging {
+
+    public record Key(LocalDateTime createdAt, Long id) {
+    }
+
+    @Value("${listing.page-size.default:50}")
+    private int defaultPageSize;
+
+    @Value("${listing.page-size.max:200}")
+    private int maxPageSize;
+
+    // The page size to serve: the default when none is asked for, never more than the maximum
+    public int pageSize(Integer requested) {
+        if (requested == null) {
+            return defaultPageSize;
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1.");
+        }
+        return Math.min(requested, maxPageSize);
+    }
+
+    // One row more than the page, to tell whether another page follows
+    public Limit probe(int pageSize) {
+        return Limit.of(pageSize + 1);
+    }
+
+    public Key decode(String pageToken) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new Key(LocalDateTime.parse(raw.substring(0, separator)), Long.valueOf(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page token.");
+        }
+    }
+
+    public <T> CursorPage<T> page(List<T> rows, int pageSize, Function<T, LocalDateTime> createdAt, Function<T, Long> id) {
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        T last = items.get(pageSize - 1);
+        return new CursorPage<>(List.copyOf(items), encode(createdAt.apply(last), id.apply(last)));
+    }
+
+    private static String encode(LocalDateTime createdAt, Long id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
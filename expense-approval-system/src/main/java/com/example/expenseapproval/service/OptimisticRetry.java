@@ -0,0 +1,77 @@
+package com.example.expenseapproval.service;
+
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs a unit of work in its own transaction and re-runs it when a @Version check fails at flush or commit,
+ * with jittered exponential backoff and a bounded number of attempts. Conflict and retry counts are kept
+ * for monitoring.
+ */
+@Component
+public class OptimisticRetry {
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${approval.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${approval.retry.initial-backoff-ms:10}")
+    private long initialBackoffMs;
+
+    @Value("${approval.retry.max-backoff-ms:200}")
+    private long maxBackoffMs;
+
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+
+    public record Stats(long conflicts, long retries, long exhausted) {
+    }
+
+    public <T> T inTransaction(TransactionCallback<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Joined an outer transaction: a failed attempt has already doomed it, so there is nothing to retry
+            return transactionTemplate.execute(action);
+        }
+
+        long backoffMs = initialBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(action);
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.incrementAndGet();
+                if (attempt >= maxAttempts) {
+                    exhausted.incrementAndGet();
+                    throw e;
+                }
+                retries.incrementAndGet();
+                sleep(ThreadLocalRandom.current().nextLong(backoffMs / 2, backoffMs + 1), e);
+                backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+            }
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(conflicts.get(), retries.get(), exhausted.get());
+    }
+
+    private static void sleep(long millis, OptimisticLockingFailureException cause) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.expenseapproval.service;
+
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Keeps the monthly partitions of expenses and audit_logs (V3 migration) ahead of the clock and, when a
+ * retention is configured, detaches the expired ones. Runs at startup and then daily.
+ * Partitions are created through the create_monthly_partition database function, so names and bounds are
+ * defined in one place. A detached partition stays behind as an ordinary table (e.g. expenses_p202401) to be
+ * archived or dropped; detaching is a catalog change, so no rows are deleted.
+ */
+@Component
+public class PartitionMaintenance {
+
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    public enum PartitionedTable {
+        EXPENSES("expenses"),
+        AUDIT_LOGS("audit_logs");
+
+        private final String tableName;
+
+        PartitionedTable(String tableName) {
+            this.tableName = tableName;
+        }
+
+        public String tableName() {
+            return tableName;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    // 0 keeps every month attached
+    @Value("${partitions.retain-months:0}")
+    private int retainMonths;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${partitions.maintenance-cron:0 0 3 * * *}")
+    public void maintain() {
+        YearMonth current = YearMonth.now();
+        for (PartitionedTable table : PartitionedTable.values()) {
+            try {
+                createPartitions(table, current, current.plusMonths(monthsAhead));
+                if (retainMonths > 0) {
+                    detachPartitionsBefore(table, current.minusMonths(retainMonths - 1));
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Partition maintenance failed for " + table.tableName() + ": " + e.getMessage());
+                // Retried on the next run
+            }
+        }
+    }
+
+    // Creates the missing partitions for the months from..to, both inclusive
+    public void createPartitions(PartitionedTable table, YearMonth from, YearMonth to) {
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            jdbcTemplate.queryForObject("select create_monthly_partition(?, ?)", String.class,
+                    table.tableName(), Date.valueOf(month.atDay(1)));
+        }
+    }
+
+    // Attached partitions by month
+    public SortedMap<YearMonth, String> attachedPartitions(PartitionedTable table) {
+        List<String> names = jdbcTemplate.queryForList(
+                "select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid "
+                        + "where i.inhparent = ?::regclass",
+                String.class, table.tableName());
+        SortedMap<YearMonth, String> partitions = new TreeMap<>();
+        String prefix = table.tableName() + "_p";
+        for (String name : names) {
+            if (!name.startsWith(prefix)) {
+                continue;
+            }
+            try {
+                partitions.put(YearMonth.parse(name.substring(prefix.length()), PARTITION_MONTH), name);
+            } catch (DateTimeParseException e) {
+                // Not one of ours; left alone
+            }
+        }
+        return partitions;
+    }
+
+    // Detaches every partition for a month before `cutoff` and returns the detached table names.
+    // DETACH ... CONCURRENTLY only briefly locks the parent, but cannot run inside a transaction block,
+    // so this must not be called from a @Transactional method.
+    public List<String> detachPartitionsBefore(PartitionedTable table, YearMonth cutoff) {
+        List<String> detached = new ArrayList<>();
+        for (String partition : attachedPartitions(table).headMap(cutoff).values()) {
+            jdbcTemplate.execute("alter table " + table.tableName() + " detach partition " + partition + " concurrently");
+            detached.add(partition);
+        }
+        return detached;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.expenseapproval.service;
+
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.expenseapproval.model.Expense;
+import com.example.expenseapproval.model.Expense.ExpenseStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps the spend_aggregates buckets (see SpendAggregate) in step with the expenses. ExpenseService reports
+ * creations, edits and deletions and ApprovalService every status change; the deltas are summed per bucket for
+ * the current transaction and written just before it commits, one upsert per touched bucket in a single JDBC
+ * batch. Buckets are written in key order, so concurrent transactions touching the same buckets cannot deadlock.
+ * A rolled-back transaction never writes its deltas.
+ */
+@Component
+public class SpendAggregates {
+
+    private static final String UPSERT_SQL =
+            "insert into spend_aggregates (company_id, month, user_id, category, currency, status, expense_count, "
+            + "total_amount, total_in_base_currency) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "on conflict (company_id, month, user_id, category, currency, status) do update set "
+            + "expense_count = spend_aggregates.expense_count + excluded.expense_count, "
+            + "total_amount = spend_aggregates.total_amount + excluded.total_amount, "
+            + "total_in_base_currency = spend_aggregates.total_in_base_currency + excluded.total_in_base_currency";
+
+    private record Bucket(Long companyId, LocalDate month, Long userId, String category, String currency,
+                          ExpenseStatus status) {
+    }
+
+    // Primary key order of spend_aggregates
+    private static final Comparator<Bucket> KEY_ORDER = Comparator.comparing(Bucket::companyId)
+            .thenComparing(Bucket::month)
+            .thenComparing(Bucket::userId)
+            .thenComparing(Bucket::category)
+            .thenComparing(Bucket::currency)
+            .thenComparing(bucket -> bucket.status().name());
+
+    private static final class Delta {
+        private long count;
+        private BigDecimal amount = BigDecimal.ZERO;
+        private BigDecimal baseAmount = BigDecimal.ZERO;
+
+        private boolean isZero() {
+            return count == 0 && amount.signum() == 0 && baseAmount.signum() == 0;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void added(Expense expense) {
+        record(bucketOf(expense, expense.getStatus()), 1, expense.getAmount(), baseAmountOf(expense));
+    }
+
+    // Call before the expense is changed or deleted
+    public void removed(Expense expense) {
+        record(bucketOf(expense, expense.getStatus()), -1, expense.getAmount().negate(), baseAmountOf(expense).negate());
+    }
+
+    // Moves the expense from the bucket of its previous status to that of its current one
+    public void statusChanged(Expense expense, ExpenseStatus from) {
+        if (from == expense.getStatus()) {
+            return;
+        }
+        record(bucketOf(expense, from), -1, expense.getAmount().negate(), baseAmountOf(expense).negate());
+        added(expense);
+    }
+
+    // The user's expenses are deleted with them (JPA cascade), and so are all of their buckets
+    public void userDeleted(Long userId) {
+        pendingDeltas().keySet().removeIf(bucket -> bucket.userId().equals(userId));
+        jdbcTemplate.update("delete from spend_aggregates where user_id = ?", userId);
+    }
+
+    public void companyDeleted(Long companyId) {
+        pendingDeltas().keySet().removeIf(bucket -> bucket.companyId().equals(companyId));
+        jdbcTemplate.update("delete from spend_aggregates where company_id = ?", companyId);
+    }
+
+    private Bucket bucketOf(Expense expense, ExpenseStatus status) {
+        return new Bucket(expense.getUser().getCompanies().getId(), expense.getExpenseDate().withDayOfMonth(1),
+                expense.getUser().getId(), expense.getCategory(), expense.getCurrency(), status);
+    }
+
+    // Not converted yet (no rate): counted as zero until BaseAmountBackfill converts it
+    private static BigDecimal baseAmountOf(Expense expense) {
+        return expense.getAmountInBaseCurrency() != null ? expense.getAmountInBaseCurrency() : BigDecimal.ZERO;
+    }
+
+    private void record(Bucket bucket, long count, BigDecimal amount, BigDecimal baseAmount) {
+        Delta delta = TransactionSynchronizationManager.isSynchronizationActive()
+                ? pendingDeltas().computeIfAbsent(bucket, key -> new Delta())
+                : new Delta();
+        delta.count += count;
+        delta.amount = delta.amount.add(amount);
+        delta.baseAmount = delta.baseAmount.add(baseAmount);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(Map.of(bucket, delta));
+        }
+    }
+
+    // This transaction's deltas, registered for writing before commit on first use; empty outside a transaction
+    @SuppressWarnings("unchecked")
+    private Map<Bucket, Delta> pendingDeltas() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new TreeMap<>(KEY_ORDER);
+        }
+        Map<Bucket, Delta> deltas = (Map<Bucket, Delta>) TransactionSynchronizationManager.getResource(this);
+        if (deltas == null) {
+            Map<Bucket, Delta> created = new TreeMap<>(KEY_ORDER);
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    write(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SpendAggregates.this);
+                }
+            });
+            deltas = created;
+        }
+        return deltas;
+    }
+
+    private void write(Map<Bucket, Delta> deltas) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        for (Map.Entry<Bucket, Delta> entry : deltas.entrySet()) {
+            Bucket bucket = entry.getKey();
+            Delta delta = entry.getValue();
+            if (delta.isZero()) {
+                continue; // e.g. moved to a status and back in the same transaction
+            }
+            rows.add(new Object[]{bucket.companyId(), bucket.month(), bucket.userId(), bucket.category(),
+                    bucket.currency(), bucket.status().name(), delta.count, delta.amount, delta.baseAmount});
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+        }
+    }
+}
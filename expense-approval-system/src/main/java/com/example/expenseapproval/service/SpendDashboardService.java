@@ -0,0 +1,70 @@
+package com.example.expenseapproval.service;
+
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.expenseapproval.dto.CategorySpend;
+import com.example.expenseapproval.dto.MonthlySpend;
+import com.example.expenseapproval.dto.StatusCount;
+import com.example.expenseapproval.dto.UserSpend;
+import com.example.expenseapproval.repository.CompanyRepository;
+import com.example.expenseapproval.repository.SpendAggregateRepository;
+import com.example.expenseapproval.repository.UserRepository;
+
+import config.ResourceNotFoundException;
+
+import java.time.YearMonth;
+import java.util.List;
+
+// Dashboard figures read from the spend aggregates (SpendAggregates), never from the expenses themselves.
+// Month ranges are inclusive at both ends; rows carry both the submitted-currency and the base-currency total.
+@Service
+public class SpendDashboardService {
+
+    @Autowired
+    private SpendAggregateRepository spendAggregateRepository;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Transactional(readOnly = true)
+    public List<StatusCount> getStatusCounts(Long companyId) {
+        requireCompany(companyId);
+        return spendAggregateRepository.findStatusCounts(companyId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<MonthlySpend> getMonthlySpend(Long companyId, YearMonth from, YearMonth to) {
+        requireCompany(companyId);
+        return spendAggregateRepository.findMonthlySpend(companyId, from.atDay(1), to.plusMonths(1).atDay(1));
+    }
+
+    @Transactional(readOnly = true)
+    public List<CategorySpend> getCategorySpend(Long companyId, YearMonth from, YearMonth to) {
+        requireCompany(companyId);
+        return spendAggregateRepository.findCategorySpend(companyId, from.atDay(1), to.plusMonths(1).atDay(1));
+    }
+
+    @Transactional(readOnly = true)
+    public List<UserSpend> getUserSpend(Long companyId, YearMonth from, YearMonth to) {
+        requireCompany(companyId);
+        return spendAggregateRepository.findUserSpend(companyId, from.atDay(1), to.plusMonths(1).atDay(1));
+    }
+
+    @Transactional(readOnly = true)
+    public List<MonthlySpend> getUserMonthlySpend(Long userId, YearMonth from, YearMonth to) {
+        userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id " + userId));
+        return spendAggregateRepository.findMonthlySpendByUserId(userId, from.atDay(1), to.plusMonths(1).atDay(1));
+    }
+
+    private void requireCompany(Long companyId) {
+        companyRepository.findById(companyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Company not found with id " + companyId));
+    }
+}
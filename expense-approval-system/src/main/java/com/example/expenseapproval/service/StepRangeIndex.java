@@ -0,0 +1,92 @@
+package com.example.expenseapproval.service;
+
+
+import com.example.expenseapproval.service.CompiledWorkflow.CompiledStep;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Interval index over the amount ranges of a workflow's steps.
+ * The range boundaries cut the amount line into segments (each boundary value, and the open stretch up to
+ * the next boundary); every segment maps to the steps whose [minAmount, maxAmount] covers it, so the steps
+ * that apply to an amount come from a single floor lookup. Steps without bounds are in every segment.
+ */
+public final class StepRangeIndex {
+
+    private final NavigableMap<Integer, CompiledStep> allSteps;
+    // Amounts below the lowest boundary
+    private final NavigableMap<Integer, CompiledStep> belowBoundaries;
+    // Amounts equal to a boundary (BigDecimal keys compare by value, so 100 and 100.00 are one key)
+    private final TreeMap<BigDecimal, NavigableMap<Integer, CompiledStep>> atBoundary;
+    // Amounts strictly between a boundary and the next one
+    private final TreeMap<BigDecimal, NavigableMap<Integer, CompiledStep>> aboveBoundary;
+
+    private StepRangeIndex(NavigableMap<Integer, CompiledStep> allSteps,
+                           NavigableMap<Integer, CompiledStep> belowBoundaries,
+                           TreeMap<BigDecimal, NavigableMap<Integer, CompiledStep>> atBoundary,
+                           TreeMap<BigDecimal, NavigableMap<Integer, CompiledStep>> aboveBoundary) {
+        this.allSteps = allSteps;
+        this.belowBoundaries = belowBoundaries;
+        this.atBoundary = atBoundary;
+        this.aboveBoundary = aboveBoundary;
+    }
+
+    public static StepRangeIndex build(NavigableMap<Integer, CompiledStep> stepsByOrder) {
+        TreeSet<BigDecimal> boundaries = new TreeSet<>();
+        for (CompiledStep step : stepsByOrder.values()) {
+            if (step.minAmount() != null) {
+                boundaries.add(step.minAmount());
+            }
+            if (step.maxAmount() != null) {
+                boundaries.add(step.maxAmount());
+            }
+        }
+
+        TreeMap<Integer, CompiledStep> below = new TreeMap<>();
+        for (CompiledStep step : stepsByOrder.values()) {
+            // Below every boundary, only a step without a minimum can apply
+            if (step.minAmount() == null) {
+                below.put(step.stepOrder(), step);
+            }
+        }
+
+        TreeMap<BigDecimal, NavigableMap<Integer, CompiledStep>> at = new TreeMap<>();
+        TreeMap<BigDecimal, NavigableMap<Integer, CompiledStep>> above = new TreeMap<>();
+        for (BigDecimal boundary : boundaries) {
+            TreeMap<Integer, CompiledStep> atSteps = new TreeMap<>();
+            TreeMap<Integer, CompiledStep> aboveSteps = new TreeMap<>();
+            for (CompiledStep step : stepsByOrder.values()) {
+                boolean fromBelow = step.minAmount() == null || step.minAmount().compareTo(boundary) <= 0;
+                if (fromBelow && (step.maxAmount() == null || step.maxAmount().compareTo(boundary) >= 0)) {
+                    atSteps.put(step.stepOrder(), step);
+                }
+                // The maximum is itself a boundary, so exceeding this one means covering up to the next
+                if (fromBelow && (step.maxAmount() == null || step.maxAmount().compareTo(boundary) > 0)) {
+                    aboveSteps.put(step.stepOrder(), step);
+                }
+            }
+            at.put(boundary, Collections.unmodifiableNavigableMap(atSteps));
+            above.put(boundary, Collections.unmodifiableNavigableMap(aboveSteps));
+        }
+
+        return new StepRangeIndex(stepsByOrder, Collections.unmodifiableNavigableMap(below), at, above);
+    }
+
+    // Steps whose amount range covers the amount, by step order; every step when the amount is unknown
+    public NavigableMap<Integer, CompiledStep> stepsFor(BigDecimal amount) {
+        if (amount == null) {
+            return allSteps;
+        }
+        NavigableMap<Integer, CompiledStep> exact = atBoundary.get(amount);
+        if (exact != null) {
+            return exact;
+        }
+        Map.Entry<BigDecimal, NavigableMap<Integer, CompiledStep>> segment = aboveBoundary.floorEntry(amount);
+        return segment != null ? segment.getValue() : belowBoundaries;
+    }
+}
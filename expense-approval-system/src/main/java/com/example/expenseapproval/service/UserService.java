@@ -6,16 +6,21 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.expenseapproval.dto.CursorPage;
+import com.example.expenseapproval.dto.UserDirectoryRow;
 import com.example.expenseapproval.model.Companymodel;
 import com.example.expenseapproval.model.User;
 import com.example.expenseapproval.model.User.Role;
 import com.example.expenseapproval.repository.CompanyRepository;
 import com.example.expenseapproval.repository.UserRepository;
+import com.example.expenseapproval.service.audit.AuditStates;
+import com.example.expenseapproval.service.audit.AuditTrail;
 
 import config.ResourceNotFoundException;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -30,8 +35,38 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    @Autowired
+    private ApproverIndex approverIndex;
+
+    @Autowired
+    private KeysetPaging keysetPaging;
+
+    @Autowired
+    private SpendAggregates spendAggregates;
+
+    @Autowired
+    private AuditTrail auditTrail;
+
+    // Keyset-paginated by (createdAt, id); pass the previous page's token to continue, null to start
+    @Transactional(readOnly = true)
+    public CursorPage<User> listUsers(String pageToken, Integer pageSize) {
+        int size = keysetPaging.pageSize(pageSize);
+        List<User> rows;
+        if (pageToken == null) {
+            rows = userRepository.findByOrderByCreatedAtAscIdAsc(keysetPaging.probe(size));
+        } else {
+            KeysetPaging.Key after = keysetPaging.decode(pageToken);
+            rows = userRepository.findPageAfter(after.createdAt(), after.id(), keysetPaging.probe(size));
+        }
+        return keysetPaging.page(rows, size, User::getCreatedAt, User::getId);
+    }
+
+    // Directory listing as projection rows; the manager's name comes from the same query
+    @Transactional(readOnly = true)
+    public List<UserDirectoryRow> getUserDirectory(Long companyId) {
+        companyRepository.findById(companyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Company not found with id " + companyId));
+        return userRepository.findDirectoryByCompanyId(companyId);
     }
 
     public User getUserById(Long id) {
@@ -49,12 +84,16 @@ public class UserService {
         user.setPasswordHash(passwordEncoder.encode(user.getPasswordHash()));
         user.setCreatedAt(LocalDateTime.now());
         user.setUpdatedAt(LocalDateTime.now());
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        approverIndex.invalidateAfterCommit(companyIdOf(saved));
+        auditTrail.recordChange(null, "USER_CREATED", "User", saved.getId(), null, null, AuditStates.of(saved));
+        return saved;
     }
 
     @Transactional
     public User updateUser(Long id, User userDetails) {
         User user = getUserById(id);
+        Map<String, String> before = AuditStates.of(user);
         user.setName(userDetails.getName());
         user.setEmail(userDetails.getEmail());
         user.setRole(userDetails.getRole());
@@ -63,12 +102,18 @@ public class UserService {
             user.setManager(userDetails.getManager());
         }
         user.setUpdatedAt(LocalDateTime.now());
+        // Role or active flag may have changed
+        approverIndex.invalidateAfterCommit(companyIdOf(user));
+        auditTrail.recordChange(null, "USER_UPDATED", "User", id, null, before, AuditStates.of(user));
         return userRepository.save(user);
     }
 
     @Transactional
     public void deleteUser(Long id) {
         User user = getUserById(id);
+        approverIndex.invalidateAfterCommit(companyIdOf(user));
+        spendAggregates.userDeleted(id); // Their expenses go with them
+        auditTrail.recordChange(null, "USER_DELETED", "User", id, null, AuditStates.of(user), null);
         userRepository.delete(user);
     }
 
@@ -84,16 +129,23 @@ public class UserService {
             throw new IllegalArgumentException("Manager and employee must belong to the same company.");
         }
 
+        Map<String, String> before = AuditStates.of(employee);
         employee.setManager(manager);
         employee.setUpdatedAt(LocalDateTime.now());
+        auditTrail.recordChange(managerId, "USER_MANAGER_ASSIGNED", "User", employeeId, null, before,
+                AuditStates.of(employee));
+        approverIndex.invalidateAfterCommit(companyIdOf(employee));
         return userRepository.save(employee);
     }
 
     @Transactional
     public User updatePassword(Long userId, String newPassword) {
         User user = getUserById(userId);
+        Map<String, String> before = AuditStates.of(user);
         user.setPasswordHash(passwordEncoder.encode(newPassword));
         user.setUpdatedAt(LocalDateTime.now());
+        // The hash is not an audited field: the entry shows only the new updatedAt
+        auditTrail.recordChange(userId, "USER_PASSWORD_CHANGED", "User", userId, null, before, AuditStates.of(user));
         return userRepository.save(user);
     }
 
@@ -115,4 +167,8 @@ public class UserService {
 
         return company;
     }
+
+    private static Long companyIdOf(User user) {
+        return user.getCompanies() != null ? user.getCompanies().getId() : null;
+    }
 }
\ No newline at end of file
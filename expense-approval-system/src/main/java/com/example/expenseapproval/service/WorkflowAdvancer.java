@@ -0,0 +1,136 @@
+package com.example.expenseapproval.service;
+
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.expenseapproval.model.ApprovalOutboxEvent;
+import com.example.expenseapproval.repository.ApprovalOutboxRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the approval outbox in the background. Each expense with queued decisions is handed to the
+ * bounded advancer pool; at most one task per expense is in flight here, and ApprovalService resolves
+ * races between instances with version checks. When advancing an expense fails, its pending events record
+ * the attempt and are retried with exponential backoff; after approval.advancer.max-attempts failures they
+ * are parked (see ApprovalOutboxEvent) so a poison event neither loops nor floods the log.
+ */
+@Component
+public class WorkflowAdvancer {
+
+    @Autowired
+    private ApprovalOutboxRepository approvalOutboxRepository;
+
+    @Autowired
+    private ApprovalService approvalService;
+
+    @Autowired
+    @Qualifier("workflowAdvancerExecutor")
+    private ThreadPoolTaskExecutor workflowAdvancerExecutor;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${approval.advancer.batch-size:200}")
+    private int batchSize;
+
+    @Value("${approval.advancer.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${approval.advancer.poll-interval-ms:200}")
+    private long pollIntervalMs;
+
+    @Value("${approval.advancer.max-backoff-ms:600000}")
+    private long maxBackoffMs;
+
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private final AtomicLong parkedEvents = new AtomicLong();
+
+    public record Stats(long failedAttempts, long parkedEvents) {
+    }
+
+    @Scheduled(fixedDelayString = "${approval.advancer.poll-interval-ms:200}")
+    public void dispatch() {
+        List<Long> expenseIds = approvalOutboxRepository.findExpenseIdsWithPendingEvents(LocalDateTime.now(),
+                PageRequest.of(0, batchSize));
+        for (Long expenseId : expenseIds) {
+            if (!inFlight.add(expenseId)) {
+                continue; // Still being advanced from an earlier poll
+            }
+            try {
+                workflowAdvancerExecutor.execute(() -> advance(expenseId));
+            } catch (TaskRejectedException e) {
+                inFlight.remove(expenseId); // Pool is saturated; picked up again on a later poll
+                return;
+            }
+        }
+    }
+
+    private void advance(Long expenseId) {
+        try {
+            approvalService.advancePendingDecisions(expenseId);
+        } catch (RuntimeException e) {
+            recordFailure(expenseId, e);
+        } finally {
+            inFlight.remove(expenseId);
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(failedAttempts.get(), parkedEvents.get());
+    }
+
+    // Counts the attempt on the expense's pending events and schedules the next one, or parks them
+    private void recordFailure(Long expenseId, RuntimeException cause) {
+        failedAttempts.incrementAndGet();
+        try {
+            Integer parked = transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                int parkedNow = 0;
+                List<ApprovalOutboxEvent> events = approvalOutboxRepository.findByExpenseIdAndProcessedAtIsNullOrderByIdAsc(expenseId);
+                for (ApprovalOutboxEvent event : events) {
+                    if (event.getParkedAt() != null) {
+                        continue;
+                    }
+                    event.setAttempts(event.getAttempts() + 1);
+                    if (event.getAttempts() >= maxAttempts) {
+                        event.setParkedAt(now);
+                        parkedNow++;
+                    } else {
+                        event.setNextAttemptAt(now.plus(backoff(event.getAttempts())));
+                    }
+                }
+                return parkedNow;
+            });
+            if (parked > 0) {
+                parkedEvents.addAndGet(parked);
+                System.err.println("Warning: advancing expense " + expenseId + " failed " + maxAttempts
+                        + " times, parked " + parked + " outbox events: " + cause.getMessage());
+            } else {
+                System.err.println("Warning: advancing expense " + expenseId + " failed, will retry: " + cause.getMessage());
+            }
+        } catch (RuntimeException e) {
+            // Typically another instance advanced the expense meanwhile; the events are dispatched again if still pending
+            System.err.println("Warning: recording the failure of expense " + expenseId + " failed: " + e.getMessage());
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        return Duration.ofMillis(Math.min(pollIntervalMs << Math.min(attempts, 20), maxBackoffMs));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.expenseapproval.service;
+
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.expenseapproval.model.ApprovalWorkflow;
+import com.example.expenseapproval.repository.ApprovalRuleRepository;
+import com.example.expenseapproval.repository.ApprovalStepRepository;
+import com.example.expenseapproval.repository.ApprovalWorkflowRepository;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-company cache of compiled workflow definitions.
+ * Entries are built on first use and replaced wholesale once a workflow change has committed,
+ * so the approval advancement paths never query workflow, step or rule tables.
+ */
+@Component
+public class WorkflowDefinitionCache {
+
+    @Autowired
+    private ApprovalWorkflowRepository approvalWorkflowRepository;
+
+    @Autowired
+    private ApprovalStepRepository approvalStepRepository;
+
+    @Autowired
+    private ApprovalRuleRepository approvalRuleRepository;
+
+    // Optional.empty() is cached too: "this company has no active workflow" is also a definition
+    private final ConcurrentMap<Long, Optional<CompiledWorkflow>> byCompany = new ConcurrentHashMap<>();
+
+    // Superseded definitions still referenced by in-flight expenses, by workflow id
+    private final ConcurrentMap<Long, CompiledWorkflow> byId = new ConcurrentHashMap<>();
+
+    public Optional<CompiledWorkflow> getActiveWorkflow(Long companyId) {
+        Optional<CompiledWorkflow> cached = byCompany.get(companyId);
+        if (cached != null) {
+            return cached;
+        }
+        // Loaded outside the map lock; if a refresh raced us, keep the refreshed entry
+        Optional<CompiledWorkflow> loaded = load(companyId);
+        Optional<CompiledWorkflow> existing = byCompany.putIfAbsent(companyId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    // The definition an expense was started on. Usually the active one; a superseded workflow is compiled
+    // on demand and kept, so expenses already on it finish the way they started. A workflow of another company is
+    // never returned; a missing one is not cached, so it is looked up again next time
+    public Optional<CompiledWorkflow> getWorkflow(Long companyId, Long workflowId) {
+        Optional<CompiledWorkflow> active = getActiveWorkflow(companyId);
+        if (workflowId == null || active.map(workflow -> workflow.workflowId().equals(workflowId)).orElse(false)) {
+            return active;
+        }
+        CompiledWorkflow cached = byId.get(workflowId);
+        if (cached == null) {
+            Optional<CompiledWorkflow> loaded = approvalWorkflowRepository.findById(workflowId).map(this::compile);
+            if (loaded.isEmpty()) {
+                return loaded;
+            }
+            CompiledWorkflow existing = byId.putIfAbsent(workflowId, loaded.get());
+            cached = existing != null ? existing : loaded.get();
+        }
+        return cached.companyId().equals(companyId) ? Optional.of(cached) : Optional.empty();
+    }
+
+    // Rebuilds the company's snapshot once the current transaction commits (immediately if there is none)
+    public void refreshAfterCommit(Long companyId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    byCompany.put(companyId, load(companyId));
+                }
+            });
+        } else {
+            byCompany.put(companyId, load(companyId));
+        }
+    }
+
+    private Optional<CompiledWorkflow> load(Long companyId) {
+        return approvalWorkflowRepository.findFirstByCompanyIdAndIsActiveTrueOrderByIdDesc(companyId).map(this::compile);
+    }
+
+    private CompiledWorkflow compile(ApprovalWorkflow workflow) {
+        return CompiledWorkflow.compile(workflow,
+                approvalStepRepository.findByWorkflowIdOrderByStepOrderAsc(workflow.getId()),
+                approvalRuleRepository.findByWorkflowIdAndIsActiveTrue(workflow.getId()));
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.expenseapproval.service.audit;
+
+
+import com.example.expenseapproval.model.AuditLog.ValueFormat;
+
+import java.time.LocalDateTime;
+
+// One audit_logs row on its way through the pipeline; userId is null for system actions, valueFormat for free text
+public record AuditEvent(Long userId,
+                         String action,
+                         String entityType,
+                         Long entityId,
+                         String oldValue,
+                         String newValue,
+                         ValueFormat valueFormat,
+                         String ipAddress,
+                         LocalDateTime createdAt) {
+}
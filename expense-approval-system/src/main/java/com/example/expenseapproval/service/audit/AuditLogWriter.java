@@ -0,0 +1,225 @@
+package com.example.expenseapproval.service.audit;
+
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.expenseapproval.service.audit.AuditTrail.Durability;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background side of the audit pipeline (see AuditTrail). Each flush drains the ring buffer into audit_logs with
+ * multi-row inserts of up to audit.batch-size rows, and in OUTBOX mode moves committed audit_outbox rows into
+ * audit_logs the same way. A batch that fails is kept and retried on the next flushes; while it waits the ring
+ * buffer fills and publishers see backpressure. The last of MAX_ATTEMPTS tries writes the batch row by row and only
+ * the rows that still fail are discarded (best effort; OUTBOX mode keeps its rows in the outbox instead). Rows
+ * whose user has since been deleted are written without one.
+ * Flushes run on the scheduler thread and once more at shutdown; the ring buffer only ever has this one consumer.
+ */
+@Component
+public class AuditLogWriter {
+
+    private static final int MAX_ATTEMPTS = 10;
+
+    private static final String COLUMNS = "user_id, action, entity_type, entity_id, old_value, new_value, value_format, "
+            + "ip_address, created_at";
+
+    private static final String INSERT_ROW = "(?::bigint, ?, ?, ?::bigint, ?, ?, ?, ?, ?::timestamp)";
+
+    // The user may have been deleted since the event was published (audit_logs.user_id references users)
+    private static final String INSERT_AUDIT_LOGS_PREFIX = "insert into audit_logs (id, " + COLUMNS + ") "
+            + "select nextval('audit_logs_seq'), u.id, v.action, v.entity_type, v.entity_id, v.old_value, v.new_value, "
+            + "v.value_format, v.ip_address, v.created_at from (values ";
+    private static final String INSERT_AUDIT_LOGS_SUFFIX = ") as v(" + COLUMNS + ") left join users u on u.id = v.user_id";
+
+    // Locked rows belong to a relay on another instance
+    private static final String RELAY_OUTBOX = "with moved as ("
+            + "delete from audit_outbox where id in "
+            + "(select id from audit_outbox order by id limit ? for update skip locked) "
+            + "returning " + COLUMNS + ") "
+            + "insert into audit_logs (id, " + COLUMNS + ") "
+            + "select nextval('audit_logs_seq'), u.id, m.action, m.entity_type, m.entity_id, m.old_value, m.new_value, "
+            + "m.value_format, m.ip_address, m.created_at from moved m left join users u on u.id = m.user_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${audit.durability:ASYNC}")
+    private Durability durability;
+
+    @Value("${audit.buffer-capacity:8192}")
+    private int bufferCapacity;
+
+    @Value("${audit.batch-size:500}")
+    private int batchSize;
+
+    private RingBuffer<AuditEvent> buffer;
+
+    // Drained but not yet written; retried first on the next flush
+    private volatile List<AuditEvent> unwritten = List.of();
+    private int failedAttempts;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        buffer = new RingBuffer<>(bufferCapacity);
+    }
+
+    boolean offer(AuditEvent event) {
+        return buffer.offer(event);
+    }
+
+    // Inserted on the caller's connection, so in OUTBOX mode the rows commit or roll back with its transaction
+    void writeOutbox(List<AuditEvent> events) {
+        for (int from = 0; from < events.size(); from += batchSize) {
+            List<AuditEvent> batch = events.subList(from, Math.min(from + batchSize, events.size()));
+            jdbcTemplate.update("insert into audit_outbox (" + COLUMNS + ") values " + rowPlaceholders(batch.size()),
+                    parameters(batch));
+        }
+    }
+
+    // Events left behind in the outbox by a previous run, whatever the mode is now
+    @EventListener(ApplicationReadyEvent.class)
+    public void relayLeftovers() {
+        relayOutbox();
+    }
+
+    @Scheduled(fixedDelayString = "${audit.flush-interval-ms:100}")
+    public synchronized void flush() {
+        while (true) {
+            List<AuditEvent> batch = unwritten;
+            if (batch.isEmpty()) {
+                batch = new ArrayList<>(Math.min(batchSize, buffer.size()));
+                if (buffer.drainTo(batch, batchSize) == 0) {
+                    break;
+                }
+            }
+            if (failedAttempts == MAX_ATTEMPTS - 1) {
+                writeRowByRow(batch);
+                unwritten = List.of();
+                failedAttempts = 0;
+                continue;
+            }
+            try {
+                insert(batch);
+                written.addAndGet(batch.size());
+                unwritten = List.of();
+                failedAttempts = 0;
+            } catch (RuntimeException e) {
+                failedBatches.incrementAndGet();
+                failedAttempts++;
+                unwritten = batch;
+                System.err.println("Writing " + batch.size() + " audit events failed, will retry: " + e.getMessage());
+                return;
+            }
+        }
+        if (durability == Durability.OUTBOX) {
+            relayOutbox();
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    // One bad row (an oversized value, say) must not take the rest of its batch down with it
+    private void writeRowByRow(List<AuditEvent> batch) {
+        int failed = 0;
+        RuntimeException lastFailure = null;
+        for (AuditEvent event : batch) {
+            try {
+                insert(List.of(event));
+                written.incrementAndGet();
+            } catch (RuntimeException e) {
+                failed++;
+                lastFailure = e;
+            }
+        }
+        if (failed > 0) {
+            discarded.addAndGet(failed);
+            System.err.println("Discarding " + failed + " of " + batch.size() + " audit events after " + MAX_ATTEMPTS
+                    + " failed writes: " + lastFailure.getMessage());
+        }
+    }
+
+    private void insert(List<AuditEvent> batch) {
+        jdbcTemplate.update(INSERT_AUDIT_LOGS_PREFIX + rowPlaceholders(batch.size()) + INSERT_AUDIT_LOGS_SUFFIX,
+                parameters(batch));
+    }
+
+    private void relayOutbox() {
+        try {
+            int moved;
+            do {
+                moved = jdbcTemplate.update(RELAY_OUTBOX, batchSize);
+                written.addAndGet(moved);
+            } while (moved == batchSize);
+        } catch (RuntimeException e) {
+            failedBatches.incrementAndGet();
+            System.err.println("Relaying the audit outbox failed, will retry: " + e.getMessage());
+        }
+    }
+
+    private static String rowPlaceholders(int rows) {
+        StringBuilder sql = new StringBuilder(rows * (INSERT_ROW.length() + 2));
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(INSERT_ROW);
+        }
+        return sql.toString();
+    }
+
+    private static Object[] parameters(List<AuditEvent> batch) {
+        Object[] parameters = new Object[batch.size() * 9];
+        int i = 0;
+        for (AuditEvent event : batch) {
+            parameters[i++] = event.userId();
+            parameters[i++] = event.action();
+            parameters[i++] = event.entityType();
+            parameters[i++] = event.entityId();
+            parameters[i++] = event.oldValue();
+            parameters[i++] = event.newValue();
+            parameters[i++] = event.valueFormat() != null ? event.valueFormat().name() : null;
+            parameters[i++] = event.ipAddress();
+            parameters[i++] = event.createdAt();
+        }
+        return parameters;
+    }
+
+    long written() {
+        return written.get();
+    }
+
+    long failedBatches() {
+        return failedBatches.get();
+    }
+
+    long discarded() {
+        return discarded.get();
+    }
+
+    int queued() {
+        return buffer.size() + unwritten.size();
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+}
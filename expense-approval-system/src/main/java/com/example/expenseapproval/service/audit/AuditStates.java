@@ -0,0 +1,57 @@
+package com.example.expenseapproval.service.audit;
+
+
+import com.example.expenseapproval.model.Expense;
+import com.example.expenseapproval.model.User;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The audited fields of an entity as text, keyed by field name: what AuditTrail.recordChange diffs and AuditHistory
+ * rebuilds. Associations appear by id (reading a proxy's id does not load it). Workflow cursor fields are left out,
+ * since they change outside the audited operations, and so is the password hash.
+ */
+public final class AuditStates {
+
+    private AuditStates() {
+    }
+
+    public static Map<String, String> of(Expense expense) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("userId", text(expense.getUser() != null ? expense.getUser().getId() : null));
+        fields.put("amount", text(expense.getAmount()));
+        fields.put("currency", expense.getCurrency());
+        fields.put("amountInBaseCurrency", text(expense.getAmountInBaseCurrency()));
+        fields.put("category", expense.getCategory());
+        fields.put("description", expense.getDescription());
+        fields.put("expenseDate", text(expense.getExpenseDate()));
+        fields.put("paidBy", expense.getPaidBy());
+        fields.put("status", text(expense.getStatus()));
+        fields.put("submittedAt", text(expense.getSubmittedAt()));
+        fields.put("createdAt", text(expense.getCreatedAt()));
+        fields.put("updatedAt", text(expense.getUpdatedAt()));
+        return fields;
+    }
+
+    public static Map<String, String> of(User user) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("companyId", text(user.getCompanies() != null ? user.getCompanies().getId() : null));
+        fields.put("name", user.getName());
+        fields.put("email", user.getEmail());
+        fields.put("role", text(user.getRole()));
+        fields.put("managerId", text(user.getManager() != null ? user.getManager().getId() : null));
+        fields.put("isActive", text(user.getIsActive()));
+        fields.put("createdAt", text(user.getCreatedAt()));
+        fields.put("updatedAt", text(user.getUpdatedAt()));
+        return fields;
+    }
+
+    private static String text(Object value) {
+        if (value instanceof BigDecimal amount) {
+            return amount.toPlainString();
+        }
+        return value != null ? value.toString() : null;
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.expenseapproval.service.audit;
+
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.example.expenseapproval.model.AuditLog.ValueFormat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Where services publish audit events; nothing is written to audit_logs on the caller's thread.
+ * Events published inside a transaction are held until it completes, so a rolled-back or retried attempt
+ * leaves no trace. What happens then depends on audit.durability:
+ * <ul>
+ * <li>ASYNC (best effort): after commit the events go into AuditLogWriter's ring buffer. When it is full the
+ * publisher waits up to audit.enqueue-timeout-ms for room (backpressure), then drops the event.</li>
+ * <li>OUTBOX: just before commit the events are inserted into audit_outbox in one multi-row statement, so they
+ * commit with the business data; AuditLogWriter moves them to audit_logs in the background.</li>
+ * </ul>
+ * Entity changes go through recordChange, which stores field-level deltas instead of full before/after copies.
+ */
+@Component
+public class AuditTrail {
+
+    public enum Durability {
+        ASYNC, OUTBOX
+    }
+
+    public record AuditStats(Durability durability,
+                             long published,
+                             long written,
+                             long backpressured,
+                             long dropped,
+                             long failedBatches,
+                             long discarded,
+                             int queued,
+                             int capacity) {
+    }
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Value("${audit.durability:ASYNC}")
+    private Durability durability;
+
+    @Value("${audit.enqueue-timeout-ms:5}")
+    private long enqueueTimeoutMillis;
+
+    @Value("${audit.snapshot-interval:20}")
+    private int snapshotInterval;
+
+    @Value("${audit.compress-min-bytes:512}")
+    private int compressMinBytes;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder backpressured = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    // userId is the acting user, null for system actions; the client address is taken from the current request
+    public void record(Long userId, String action, String entityType, Long entityId, String oldValue, String newValue) {
+        publish(userId, action, entityType, entityId, oldValue, newValue, null);
+    }
+
+    // A change of an entity from before (null when it is created) to after (null when it is deleted), both built
+    // by AuditStates. Only the changed fields are stored: old_value with their previous values, new_value with the
+    // new ones. A creation stores the full state, and so does every change whose revision (the entity's count of
+    // audited changes, this one included) is a multiple of audit.snapshot-interval, so AuditHistory never replays
+    // more than that many deltas. Entities that keep no such count pass null and are replayed from their creation.
+    public void recordChange(Long userId, String action, String entityType, Long entityId, Long revision,
+                             Map<String, String> before, Map<String, String> after) {
+        if (after == null) {
+            publish(userId, action, entityType, entityId, encode(before), null, ValueFormat.TOMBSTONE);
+        } else if (before == null) {
+            publish(userId, action, entityType, entityId, null, encode(after), ValueFormat.SNAPSHOT);
+        } else if (revision != null && revision % snapshotInterval == 0) {
+            publish(userId, action, entityType, entityId, encode(AuditValues.diff(after, before)), encode(after),
+                    ValueFormat.SNAPSHOT);
+        } else {
+            publish(userId, action, entityType, entityId, encode(AuditValues.diff(after, before)),
+                    encode(AuditValues.diff(before, after)), ValueFormat.DELTA);
+        }
+    }
+
+    private void publish(Long userId, String action, String entityType, Long entityId, String oldValue,
+                         String newValue, ValueFormat valueFormat) {
+        AuditEvent event = new AuditEvent(userId, action, entityType, entityId, oldValue, newValue, valueFormat,
+                currentIpAddress(), LocalDateTime.now());
+        published.increment();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingEvents().add(event);
+        } else {
+            deliver(List.of(event));
+        }
+    }
+
+    public AuditStats stats() {
+        return new AuditStats(durability, published.sum(), auditLogWriter.written(), backpressured.sum(),
+                dropped.sum(), auditLogWriter.failedBatches(), auditLogWriter.discarded(), auditLogWriter.queued(),
+                auditLogWriter.capacity());
+    }
+
+    private String encode(Map<String, String> fields) {
+        return AuditValues.encode(fields, compressMinBytes);
+    }
+
+    // This transaction's events, registered for delivery on first use
+    @SuppressWarnings("unchecked")
+    private List<AuditEvent> pendingEvents() {
+        List<AuditEvent> events = (List<AuditEvent>) TransactionSynchronizationManager.getResource(this);
+        if (events == null) {
+            List<AuditEvent> created = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    if (durability == Durability.OUTBOX) {
+                        auditLogWriter.writeOutbox(created);
+                    }
+                }
+
+                @Override
+                public void afterCommit() {
+                    if (durability == Durability.ASYNC) {
+                        created.forEach(AuditTrail.this::enqueue);
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AuditTrail.this);
+                }
+            });
+            events = created;
+        }
+        return events;
+    }
+
+    private void deliver(List<AuditEvent> events) {
+        if (durability == Durability.OUTBOX) {
+            auditLogWriter.writeOutbox(events);
+        } else {
+            events.forEach(this::enqueue);
+        }
+    }
+
+    private void enqueue(AuditEvent event) {
+        if (auditLogWriter.offer(event)) {
+            return;
+        }
+        backpressured.increment();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(enqueueTimeoutMillis);
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(50_000);
+            if (auditLogWriter.offer(event)) {
+                return;
+            }
+        }
+        dropped.increment();
+    }
+
+    private static String currentIpAddress() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return attributes.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+}
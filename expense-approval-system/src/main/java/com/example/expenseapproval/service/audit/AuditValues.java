@@ -0,0 +1,95 @@
+package com.example.expenseapproval.service.audit;
+
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding of entity states and field-level diffs in audit_logs.old_value/new_value: a JSON object of field name
+ * to value as text, null standing for a cleared field. An encoding of at least compressMinBytes is gzipped and
+ * stored as Base64 when that comes out shorter. JSON always starts with '{', which Base64 never does, so decode
+ * needs no marker to tell the two apart.
+ */
+final class AuditValues {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static final TypeReference<LinkedHashMap<String, String>> FIELDS = new TypeReference<>() {
+    };
+
+    private AuditValues() {
+    }
+
+    // The fields whose value differs between the two states, with their value in to
+    static Map<String, String> diff(Map<String, String> from, Map<String, String> to) {
+        Map<String, String> changed = new LinkedHashMap<>();
+        for (Map.Entry<String, String> field : to.entrySet()) {
+            if (!Objects.equals(from.get(field.getKey()), field.getValue())) {
+                changed.put(field.getKey(), field.getValue());
+            }
+        }
+        for (String field : from.keySet()) {
+            if (!to.containsKey(field) && from.get(field) != null) {
+                changed.put(field, null);
+            }
+        }
+        return changed;
+    }
+
+    // compressMinBytes <= 0 never compresses
+    static String encode(Map<String, String> fields, int compressMinBytes) {
+        String json;
+        try {
+            json = JSON.writeValueAsString(fields);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Audit value could not be encoded", e);
+        }
+        if (compressMinBytes <= 0 || json.length() < compressMinBytes) {
+            return json;
+        }
+        String compressed = Base64.getEncoder().encodeToString(gzip(json.getBytes(StandardCharsets.UTF_8)));
+        return compressed.length() < json.length() ? compressed : json;
+    }
+
+    static Map<String, String> decode(String value) {
+        String json = value.startsWith("{")
+                ? value
+                : new String(gunzip(Base64.getDecoder().decode(value)), StandardCharsets.UTF_8);
+        try {
+            return JSON.readValue(json, FIELDS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Not an encoded audit value: " + value, e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] bytes) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return gzip.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.expenseapproval.service.audit;
+
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue over a power-of-two array of slots (D. Vyukov's bounded MPMC design). Each slot carries
+ * a sequence number telling producers and consumers whose turn it is: a producer claims a position with one CAS
+ * on the tail, stores the item and then publishes it by advancing the slot's sequence; a consumer does the same
+ * on the head. Nobody ever waits on a lock, and offer fails instead of blocking when the buffer is full, so the
+ * caller decides between waiting and dropping.
+ */
+public final class RingBuffer<T> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<T> items;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    // Rounded up to a power of two
+    public RingBuffer(int minCapacity) {
+        if (minCapacity < 1 || minCapacity > (1 << 30)) {
+            throw new IllegalArgumentException("Ring buffer capacity must be between 1 and 2^30: " + minCapacity);
+        }
+        capacity = minCapacity == 1 ? 1 : Integer.highestOneBit(minCapacity - 1) << 1;
+        mask = capacity - 1;
+        items = new AtomicReferenceArray<>(capacity);
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    // False when the buffer is full
+    public boolean offer(T item) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long turn = sequences.get(index) - position;
+            if (turn == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    items.set(index, item);
+                    sequences.set(index, position + 1); // Now visible to consumers
+                    return true;
+                }
+                position = tail.get();
+            } else if (turn < 0) {
+                return false; // The slot still holds the item from one lap ago
+            } else {
+                position = tail.get(); // Another producer took this position
+            }
+        }
+    }
+
+    // Null when the buffer is empty
+    public T poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) position & mask;
+            long turn = sequences.get(index) - (position + 1);
+            if (turn == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    T item = items.get(index);
+                    items.set(index, null);
+                    sequences.set(index, position + capacity); // Free for the producer one lap ahead
+                    return item;
+                }
+                position = head.get();
+            } else if (turn < 0) {
+                return null; // Not yet published
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    // Moves up to max items into the sink; returns how many were moved
+    public int drainTo(List<? super T> sink, int max) {
+        int drained = 0;
+        T item;
+        while (drained < max && (item = poll()) != null) {
+            sink.add(item);
+            drained++;
+        }
+        return drained;
+    }
+
+    // Approximate while producers or consumers are active
+    public int size() {
+        return (int) Math.max(0, Math.min(capacity, tail.get() - head.get()));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
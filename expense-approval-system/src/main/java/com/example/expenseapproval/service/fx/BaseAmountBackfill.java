@@ -0,0 +1,107 @@
+package com.example.expenseapproval.service.fx;
+
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.expenseapproval.model.Expense;
+import com.example.expenseapproval.repository.ExpenseRepository;
+import com.example.expenseapproval.service.ApprovalService;
+import com.example.expenseapproval.service.SpendAggregates;
+import com.example.expenseapproval.service.audit.AuditStates;
+import com.example.expenseapproval.service.audit.AuditTrail;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Fills in Expense.amountInBaseCurrency for the expenses written while their rate was missing (and those from
+ * before the V5 migration), moving their amounts into the base-currency totals of the spend aggregates, and starts
+ * the approval workflows that were held for want of that amount.
+ * Runs at startup and after every rate reload; expenses still without a rate are passed over until the next run.
+ */
+@Component
+public class BaseAmountBackfill {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private record Chunk(Long lastId, int converted) {
+    }
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private FxRates fxRates;
+
+    @Autowired
+    private SpendAggregates spendAggregates;
+
+    @Autowired
+    private AuditTrail auditTrail;
+
+    @Autowired
+    private ApprovalService approvalService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        backfill();
+    }
+
+    // Picks up new rate files, then converts whatever they made convertible
+    @Scheduled(cron = "${fx.reload-cron:0 15 * * * *}")
+    public void reloadAndBackfill() {
+        fxRates.reload();
+        backfill();
+    }
+
+    // Returns the number of expenses converted; each chunk commits on its own
+    public int backfill() {
+        int converted = 0;
+        Long afterId = 0L;
+        try {
+            while (afterId != null) {
+                Long from = afterId;
+                Chunk chunk = transactionTemplate.execute(status -> convertChunk(from));
+                converted += chunk.converted();
+                afterId = chunk.lastId();
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Base-currency backfill stopped after " + converted + " expenses: " + e.getMessage());
+            // Retried on the next run
+        }
+        return converted;
+    }
+
+    private Chunk convertChunk(Long afterId) {
+        List<Expense> expenses = expenseRepository.findByAmountInBaseCurrencyIsNullAndIdGreaterThanOrderByIdAsc(
+                afterId, Limit.of(CHUNK_SIZE));
+        int converted = 0;
+        for (Expense expense : expenses) {
+            Optional<BigDecimal> amount = fxRates.toBaseCurrency(expense);
+            if (amount.isPresent()) {
+                spendAggregates.removed(expense);
+                Map<String, String> before = AuditStates.of(expense);
+                expense.setAmountInBaseCurrency(amount.get());
+                spendAggregates.added(expense); // Nets out to the base-currency amount alone
+                // Audited like any other change, so AuditHistory's replay stays complete
+                auditTrail.recordChange(null, "EXPENSE_BASE_AMOUNT_SET", "Expense", expense.getId(),
+                        expense.nextAuditRevision(), before, AuditStates.of(expense));
+                approvalService.startHeldWorkflow(expense); // Held until now if it was submitted without a rate
+                converted++;
+            }
+        }
+        Long lastId = expenses.size() < CHUNK_SIZE ? null : expenses.get(expenses.size() - 1).getId();
+        return new Chunk(lastId, converted);
+    }
+}
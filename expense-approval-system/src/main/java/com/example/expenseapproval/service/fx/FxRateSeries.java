@@ -0,0 +1,53 @@
+package com.example.expenseapproval.service.fx;
+
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * Daily rates of one currency against the pivot currency (units of the currency per pivot unit), as two
+ * parallel arrays sorted by day. A lookup is a binary search for the last published day on or before the
+ * requested date, so weekend and holiday dates take the previous rate. Immutable.
+ */
+public final class FxRateSeries {
+
+    private final long[] epochDays;
+    private final BigDecimal[] rates;
+
+    private FxRateSeries(long[] epochDays, BigDecimal[] rates) {
+        this.epochDays = epochDays;
+        this.rates = rates;
+    }
+
+    public static FxRateSeries of(NavigableMap<LocalDate, BigDecimal> ratesByDay) {
+        long[] epochDays = new long[ratesByDay.size()];
+        BigDecimal[] rates = new BigDecimal[ratesByDay.size()];
+        int i = 0;
+        for (Map.Entry<LocalDate, BigDecimal> entry : ratesByDay.entrySet()) {
+            epochDays[i] = entry.getKey().toEpochDay();
+            rates[i] = entry.getValue();
+            i++;
+        }
+        return new FxRateSeries(epochDays, rates);
+    }
+
+    // The rate in force on the date, or null when the series starts later or its last rate is older than maxAgeDays
+    public BigDecimal rateOn(LocalDate date, int maxAgeDays) {
+        long day = date.toEpochDay();
+        int index = Arrays.binarySearch(epochDays, day);
+        if (index < 0) {
+            index = -index - 2; // The last day before the date
+            if (index < 0 || day - epochDays[index] > maxAgeDays) {
+                return null;
+            }
+        }
+        return rates[index];
+    }
+
+    public int size() {
+        return epochDays.length;
+    }
+}
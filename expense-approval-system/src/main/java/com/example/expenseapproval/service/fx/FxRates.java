@@ -0,0 +1,129 @@
+package com.example.expenseapproval.service.fx;
+
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import com.example.expenseapproval.model.Expense;
+
+import jakarta.annotation.PostConstruct;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Exchange rates loaded from local CSV files, one line per published rate: {@code date,currency,rate}, where rate
+ * is the units of the currency bought by one unit of the pivot currency (e.g. {@code 2025-03-14,EUR,0.9187}
+ * with a USD pivot). Lines starting with '#' and a "date,..." header are skipped; later files and lines win
+ * for the same day. Every currency is held as an FxRateSeries, and a conversion between two currencies
+ * crosses through the pivot. The series are swapped in whole on reload, so readers never see a partial load.
+ */
+@Component
+public class FxRates {
+
+    @Value("${fx.rates-location:classpath*:fx/*.csv}")
+    private String ratesLocation;
+
+    @Value("${fx.pivot-currency:USD}")
+    private String pivotCurrency;
+
+    // How far back a conversion may reach for the last published rate (weekends, holidays, late files)
+    @Value("${fx.max-rate-age-days:7}")
+    private int maxRateAgeDays;
+
+    private volatile Map<String, FxRateSeries> seriesByCurrency = Map.of();
+
+    @PostConstruct
+    public void reload() {
+        Map<String, NavigableMap<LocalDate, BigDecimal>> loaded = new HashMap<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(ratesLocation)) {
+                read(resource, loaded);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not load FX rates from " + ratesLocation + ": " + e.getMessage());
+            return; // Keep the rates already loaded
+        }
+        Map<String, FxRateSeries> series = new HashMap<>();
+        loaded.forEach((currency, rates) -> series.put(currency, FxRateSeries.of(rates)));
+        seriesByCurrency = Map.copyOf(series);
+    }
+
+    private void read(Resource resource, Map<String, NavigableMap<LocalDate, BigDecimal>> loaded) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || line.regionMatches(true, 0, "date,", 0, 5)) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                try {
+                    if (fields.length != 3) {
+                        throw new IllegalArgumentException("expected date,currency,rate");
+                    }
+                    BigDecimal rate = new BigDecimal(fields[2].trim());
+                    if (rate.signum() <= 0) {
+                        throw new IllegalArgumentException("rate must be positive");
+                    }
+                    loaded.computeIfAbsent(normalize(fields[1]), currency -> new TreeMap<>())
+                            .put(LocalDate.parse(fields[0].trim()), rate);
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    System.err.println("Warning: skipping FX rate " + resource.getDescription() + ":" + lineNumber
+                            + " (" + e.getMessage() + ").");
+                }
+            }
+        }
+    }
+
+    // The amount in the target currency at the rates in force on the date, to the cent; empty when a rate is missing
+    public Optional<BigDecimal> convert(BigDecimal amount, String from, String to, LocalDate on) {
+        String source = normalize(from);
+        String target = normalize(to);
+        if (source.equals(target)) {
+            return Optional.of(amount);
+        }
+        BigDecimal sourceRate = pivotRate(source, on);
+        BigDecimal targetRate = pivotRate(target, on);
+        if (sourceRate == null || targetRate == null) {
+            return Optional.empty();
+        }
+        return Optional.of(amount.multiply(targetRate).divide(sourceRate, MathContext.DECIMAL64)
+                .setScale(2, RoundingMode.HALF_EVEN));
+    }
+
+    // The expense's amount in its submitter's company base currency at the expense date's rates
+    public Optional<BigDecimal> toBaseCurrency(Expense expense) {
+        return convert(expense.getAmount(), expense.getCurrency(), expense.getUser().getCompanies().getBaseCurrency(),
+                expense.getExpenseDate());
+    }
+
+    private BigDecimal pivotRate(String currency, LocalDate on) {
+        if (currency.equals(normalize(pivotCurrency))) {
+            return BigDecimal.ONE;
+        }
+        FxRateSeries series = seriesByCurrency.get(currency);
+        return series != null ? series.rateOn(on, maxRateAgeDays) : null;
+    }
+
+    private static String normalize(String currency) {
+        return currency.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.expenseapproval.service.rules;
+
+
+import com.example.expenseapproval.model.ApprovalTally;
+import com.example.expenseapproval.model.User.Role;
+
+import java.util.Arrays;
+
+/**
+ * Read-only view of an expense's approval counters, as consumed by {@link RuleExpression}.
+ * Per-role arrays are indexed by {@link Role#ordinal()}.
+ */
+public record ApprovalState(int assigned,
+                            int approved,
+                            int rejected,
+                            Long[] approvedApproverIds,
+                            int[] assignedByRole,
+                            int[] approvedByRole,
+                            int[] rejectedByRole) {
+
+    public static ApprovalState of(ApprovalTally tally) {
+        return new ApprovalState(tally.getApproversAssigned(), tally.getApprovedCount(), tally.getRejectedCount(),
+                tally.getApprovedApproverIds(), tally.getAssignedByRole(), tally.getApprovedByRole(),
+                tally.getRejectedByRole());
+    }
+
+    public int pending() {
+        return Math.max(0, assigned - approved - rejected);
+    }
+
+    public boolean hasApproved(Long approverId) {
+        return approverId != null && Arrays.binarySearch(approvedApproverIds, approverId) >= 0;
+    }
+
+    public int approvedWithRole(Role role) {
+        return countAt(approvedByRole, role);
+    }
+
+    public int pendingWithRole(Role role) {
+        return Math.max(0, countAt(assignedByRole, role) - countAt(approvedByRole, role) - countAt(rejectedByRole, role));
+    }
+
+    private static int countAt(int[] byRole, Role role) {
+        return byRole != null && role.ordinal() < byRole.length ? byRole[role.ordinal()] : 0;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.expenseapproval.service.rules;
+
+
+import com.example.expenseapproval.model.User.Role;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Compiled predicate tree for approval rules.
+ * Evaluation is three-valued and short-circuits: AND stops at the first IMPOSSIBLE child,
+ * OR stops at the first APPROVED child.
+ */
+public sealed interface RuleExpression {
+
+    RuleOutcome evaluate(ApprovalState state);
+
+    record And(List<RuleExpression> children) implements RuleExpression {
+        @Override
+        public RuleOutcome evaluate(ApprovalState state) {
+            RuleOutcome result = RuleOutcome.APPROVED;
+            for (RuleExpression child : children) {
+                RuleOutcome outcome = child.evaluate(state);
+                if (outcome == RuleOutcome.IMPOSSIBLE) {
+                    return RuleOutcome.IMPOSSIBLE;
+                }
+                if (outcome == RuleOutcome.UNDECIDED) {
+                    result = RuleOutcome.UNDECIDED;
+                }
+            }
+            return result;
+        }
+    }
+
+    record Or(List<RuleExpression> children) implements RuleExpression {
+        @Override
+        public RuleOutcome evaluate(ApprovalState state) {
+            RuleOutcome result = RuleOutcome.IMPOSSIBLE;
+            for (RuleExpression child : children) {
+                RuleOutcome outcome = child.evaluate(state);
+                if (outcome == RuleOutcome.APPROVED) {
+                    return RuleOutcome.APPROVED;
+                }
+                if (outcome == RuleOutcome.UNDECIDED) {
+                    result = RuleOutcome.UNDECIDED;
+                }
+            }
+            return result;
+        }
+    }
+
+    record Not(RuleExpression child) implements RuleExpression {
+        @Override
+        public RuleOutcome evaluate(ApprovalState state) {
+            return child.evaluate(state).negate();
+        }
+    }
+
+    // At least `percentage` of the assigned approvers approved; vacuously true when nobody was assigned
+    record Percentage(BigDecimal percentage) implements RuleExpression {
+        @Override
+        public RuleOutcome evaluate(ApprovalState state) {
+            if (state.assigned() == 0) {
+                return RuleOutcome.APPROVED;
+            }
+            double required = percentage.doubleValue();
+            double now = (double) state.approved() / state.assigned() * 100;
+            double best = (double) (state.approved() + state.pending()) / state.assigned() * 100;
+            return RuleOutcome.of(now >= required, best >= required);
+        }
+    }
+
+    record SpecificApprover(Long approverId) implements RuleExpression {
+        @Override
+        public RuleOutcome evaluate(ApprovalState state) {
+            return RuleOutcome.of(state.hasApproved(approverId), state.pending() > 0);
+        }
+    }
+
+    // At least `count` approvers holding `role` approved
+    record RoleQuorum(Role role, int count) implements RuleExpression {
+        @Override
+        public RuleOutcome evaluate(ApprovalState state) {
+            int approved = state.approvedWithRole(role);
+            return RuleOutcome.of(approved >= count, approved + state.pendingWithRole(role) >= count);
+        }
+    }
+}
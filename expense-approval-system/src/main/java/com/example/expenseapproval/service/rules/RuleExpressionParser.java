@@ -0,0 +1,179 @@
+package com.example.expenseapproval.service.rules;
+
+
+import com.example.expenseapproval.model.User.Role;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parses rule expressions such as {@code PERCENT(60) AND (APPROVER(12) OR QUORUM(MANAGER, 2))}.
+ *
+ * <pre>
+ * expr    := and ('OR' and)*
+ * and     := unary ('AND' unary)*
+ * unary   := 'NOT' unary | '(' expr ')' | leaf
+ * leaf    := 'PERCENT' '(' number ')' | 'APPROVER' '(' userId ')' | 'QUORUM' '(' role ',' count ')'
+ * </pre>
+ *
+ * Keywords are case-insensitive. Malformed input is reported with an IllegalArgumentException.
+ */
+public final class RuleExpressionParser {
+
+    private final String source;
+    private final List<String> tokens;
+    private int position;
+
+    private RuleExpressionParser(String source) {
+        this.source = source;
+        this.tokens = tokenize(source);
+    }
+
+    public static RuleExpression parse(String source) {
+        if (source == null || source.isBlank()) {
+            throw new IllegalArgumentException("Rule expression is empty.");
+        }
+        RuleExpressionParser parser = new RuleExpressionParser(source);
+        RuleExpression expression = parser.parseOr();
+        if (parser.position < parser.tokens.size()) {
+            throw parser.error("unexpected '" + parser.tokens.get(parser.position) + "'");
+        }
+        return expression;
+    }
+
+    private RuleExpression parseOr() {
+        List<RuleExpression> children = new ArrayList<>();
+        children.add(parseAnd());
+        while (acceptKeyword("OR")) {
+            children.add(parseAnd());
+        }
+        return children.size() == 1 ? children.get(0) : new RuleExpression.Or(List.copyOf(children));
+    }
+
+    private RuleExpression parseAnd() {
+        List<RuleExpression> children = new ArrayList<>();
+        children.add(parseUnary());
+        while (acceptKeyword("AND")) {
+            children.add(parseUnary());
+        }
+        return children.size() == 1 ? children.get(0) : new RuleExpression.And(List.copyOf(children));
+    }
+
+    private RuleExpression parseUnary() {
+        if (acceptKeyword("NOT")) {
+            return new RuleExpression.Not(parseUnary());
+        }
+        if (accept("(")) {
+            RuleExpression inner = parseOr();
+            expect(")");
+            return inner;
+        }
+        String keyword = next().toUpperCase(Locale.ROOT);
+        switch (keyword) {
+            case "PERCENT": {
+                expect("(");
+                BigDecimal percentage = parseNumber(next());
+                expect(")");
+                if (percentage.signum() < 0 || percentage.compareTo(BigDecimal.valueOf(100)) > 0) {
+                    throw error("percentage must be between 0 and 100");
+                }
+                return new RuleExpression.Percentage(percentage);
+            }
+            case "APPROVER": {
+                expect("(");
+                Long approverId = parseNumber(next()).longValueExact();
+                expect(")");
+                return new RuleExpression.SpecificApprover(approverId);
+            }
+            case "QUORUM": {
+                expect("(");
+                Role role = parseRole(next());
+                expect(",");
+                int count = parseNumber(next()).intValueExact();
+                expect(")");
+                if (count < 1) {
+                    throw error("quorum count must be at least 1");
+                }
+                return new RuleExpression.RoleQuorum(role, count);
+            }
+            default:
+                throw error("unknown term '" + keyword + "'");
+        }
+    }
+
+    private boolean acceptKeyword(String keyword) {
+        if (position < tokens.size() && tokens.get(position).equalsIgnoreCase(keyword)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean accept(String token) {
+        if (position < tokens.size() && tokens.get(position).equals(token)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String token) {
+        if (!accept(token)) {
+            throw error("expected '" + token + "'");
+        }
+    }
+
+    private String next() {
+        if (position >= tokens.size()) {
+            throw error("unexpected end of expression");
+        }
+        return tokens.get(position++);
+    }
+
+    private BigDecimal parseNumber(String token) {
+        try {
+            return new BigDecimal(token);
+        } catch (NumberFormatException e) {
+            throw error("expected a number but found '" + token + "'");
+        }
+    }
+
+    private Role parseRole(String token) {
+        try {
+            return Role.valueOf(token.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw error("unknown role '" + token + "'");
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Invalid rule expression \"" + source + "\": " + message);
+    }
+
+    private static List<String> tokenize(String source) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')' || c == ',') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else {
+                int start = i;
+                while (i < source.length() && (Character.isLetterOrDigit(source.charAt(i))
+                        || source.charAt(i) == '.' || source.charAt(i) == '_')) {
+                    i++;
+                }
+                if (start == i) {
+                    throw new IllegalArgumentException("Invalid rule expression \"" + source + "\": unexpected '" + c + "'");
+                }
+                tokens.add(source.substring(start, i));
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.expenseapproval.service.rules;
+
+
+/**
+ * Three-valued result of evaluating a rule against an expense's approval state.
+ */
+public enum RuleOutcome {
+    APPROVED,   // satisfied whatever the pending approvers decide
+    IMPOSSIBLE, // cannot be satisfied whatever the pending approvers decide
+    UNDECIDED;  // depends on approvers who have not acted yet
+
+    public RuleOutcome negate() {
+        switch (this) {
+            case APPROVED:
+                return IMPOSSIBLE;
+            case IMPOSSIBLE:
+                return APPROVED;
+            default:
+                return UNDECIDED;
+        }
+    }
+
+    public static RuleOutcome of(boolean satisfiedNow, boolean stillReachable) {
+        if (satisfiedNow) {
+            return APPROVED;
+        }
+        return stillReachable ? UNDECIDED : IMPOSSIBLE;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.expenseapproval.service.simulation;
+
+
+import com.example.expenseapproval.model.Approval.ApprovalStatus;
+
+/**
+ * Decides, during a simulation, how an approver acts on an approval they were given.
+ * Must be a pure function: the replay calls it from several threads.
+ */
+@FunctionalInterface
+public interface DecisionPolicy {
+
+    // Every approver approves: shows how far each expense travels through the workflow
+    DecisionPolicy APPROVE_ALL = (expense, approverId, stepOrder) -> ApprovalStatus.APPROVED;
+
+    ApprovalStatus decide(SimulatedExpense expense, Long approverId, int stepOrder);
+}
@@ -0,0 +1,11 @@
+package com.example.expenseapproval.service.simulation;
+
+
+import java.math.BigDecimal;
+
+/**
+ * What the routing logic needs to know about one replayed expense: its amount and the submitter's manager
+ * (null when the submitter has none).
+ */
+public record SimulatedExpense(Long id, BigDecimal amount, Long managerId) {
+}
@@ -0,0 +1,8 @@
+package com.example.expenseapproval.service.simulation;
+
+
+import com.example.expenseapproval.model.User.Role;
+
+// The columns of a user that approver resolution reads
+public record SimulatedUser(Long id, Role role, Boolean isActive) {
+}
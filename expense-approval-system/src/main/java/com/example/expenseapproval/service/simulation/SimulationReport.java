@@ -0,0 +1,19 @@
+package com.example.expenseapproval.service.simulation;
+
+
+import com.example.expenseapproval.model.Expense.ExpenseStatus;
+
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Outcome of replaying a set of expenses through a workflow definition.
+ * {@code routedByStep} counts the expenses that reached each step (0 = manager approval);
+ * {@code approvalsSkipped} are approvals still pending when the rules settled the expense.
+ */
+public record SimulationReport(long expenses,
+                               SortedMap<Integer, Long> routedByStep,
+                               long approvalsCreated,
+                               long approvalsSkipped,
+                               Map<ExpenseStatus, Long> statusCounts) {
+}
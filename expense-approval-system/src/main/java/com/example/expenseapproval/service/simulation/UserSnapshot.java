@@ -0,0 +1,56 @@
+package com.example.expenseapproval.service.simulation;
+
+
+import com.example.expenseapproval.model.User.Role;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of the users a simulation can route to: every user's role, and the active users holding
+ * each role (the same lists ApproverIndex serves to the live workflow). Read-only once built.
+ */
+public final class UserSnapshot {
+
+    private final Map<Long, Role> rolesById;
+    private final Map<Role, List<Long>> activeIdsByRole;
+
+    private UserSnapshot(Map<Long, Role> rolesById, Map<Role, List<Long>> activeIdsByRole) {
+        this.rolesById = rolesById;
+        this.activeIdsByRole = activeIdsByRole;
+    }
+
+    public static UserSnapshot of(Collection<SimulatedUser> users) {
+        Map<Long, Role> rolesById = new HashMap<>();
+        Map<Role, List<Long>> activeIdsByRole = new EnumMap<>(Role.class);
+        for (SimulatedUser user : users) {
+            rolesById.put(user.id(), user.role());
+            if (Boolean.TRUE.equals(user.isActive()) && user.role() != null) {
+                activeIdsByRole.computeIfAbsent(user.role(), role -> new ArrayList<>()).add(user.id());
+            }
+        }
+        // Ordered by id, like the live role index
+        activeIdsByRole.replaceAll((role, ids) -> {
+            Collections.sort(ids);
+            return List.copyOf(ids);
+        });
+        return new UserSnapshot(rolesById, activeIdsByRole);
+    }
+
+    public boolean contains(Long userId) {
+        return rolesById.containsKey(userId);
+    }
+
+    public Role roleOf(Long userId) {
+        return rolesById.get(userId);
+    }
+
+    public List<Long> activeIdsWithRole(Role role) {
+        return activeIdsByRole.getOrDefault(role, List.of());
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.expenseapproval.service.simulation;
+
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.expenseapproval.model.Approval.ApprovalStatus;
+import com.example.expenseapproval.model.ApprovalTally;
+import com.example.expenseapproval.model.Expense.ExpenseStatus;
+import com.example.expenseapproval.model.User;
+import com.example.expenseapproval.repository.ExpenseRepository;
+import com.example.expenseapproval.repository.UserRepository;
+import com.example.expenseapproval.service.CompiledWorkflow;
+import com.example.expenseapproval.service.CompiledWorkflow.CompiledStep;
+import com.example.expenseapproval.service.rules.ApprovalState;
+import com.example.expenseapproval.service.rules.RuleOutcome;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Replays expenses through a workflow definition entirely in memory, following the same routing as
+ * ApprovalService (manager step, amount-range step selection, approver resolution, the workflow cursor and
+ * the compiled rule condition) but against snapshots of users and expenses, without writing anything.
+ * A candidate definition can be simulated before it is saved: compile unsaved entities with
+ * {@link CompiledWorkflow#compile}. Expenses are replayed in parallel on the fork/join common pool.
+ */
+@Component
+public class WorkflowSimulator {
+
+    // Below this many expenses a task replays its slice itself instead of splitting it further
+    private static final int SPLIT_THRESHOLD = 2_000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    // Replays the company's expenses submitted in [from, to). Only the two snapshot queries touch the database.
+    public SimulationReport replay(Long companyId, CompiledWorkflow workflow, LocalDateTime from, LocalDateTime to,
+                                   DecisionPolicy policy) {
+        UserSnapshot users = loadUsers(companyId, workflow);
+        List<SimulatedExpense> expenses = expenseRepository.findSimulatedByCompanyIdAndSubmittedAtBetween(companyId, from, to);
+        return simulate(workflow, users, expenses, policy);
+    }
+
+    public SimulationReport simulate(CompiledWorkflow workflow, UserSnapshot users, List<SimulatedExpense> expenses,
+                                     DecisionPolicy policy) {
+        Counts counts = ForkJoinPool.commonPool()
+                .invoke(new ReplayTask(workflow, users, expenses, policy, 0, expenses.size()));
+        return counts.toReport();
+    }
+
+    private UserSnapshot loadUsers(Long companyId, CompiledWorkflow workflow) {
+        List<SimulatedUser> users = new ArrayList<>(userRepository.findSimulatedByCompanyId(companyId));
+        // Steps may name a specific approver outside the company
+        Set<Long> known = new HashSet<>();
+        users.forEach(user -> known.add(user.id()));
+        Set<Long> missing = new HashSet<>();
+        for (CompiledStep step : workflow.stepsByOrder().values()) {
+            if (step.approverUserId() != null && !known.contains(step.approverUserId())) {
+                missing.add(step.approverUserId());
+            }
+        }
+        if (!missing.isEmpty()) {
+            users.addAll(userRepository.findSimulatedByIdIn(missing));
+        }
+        return UserSnapshot.of(users);
+    }
+
+    private static final class ReplayTask extends RecursiveTask<Counts> {
+
+        private final CompiledWorkflow workflow;
+        private final UserSnapshot users;
+        private final List<SimulatedExpense> expenses;
+        private final DecisionPolicy policy;
+        private final int from;
+        private final int to;
+
+        ReplayTask(CompiledWorkflow workflow, UserSnapshot users, List<SimulatedExpense> expenses,
+                   DecisionPolicy policy, int from, int to) {
+            this.workflow = workflow;
+            this.users = users;
+            this.expenses = expenses;
+            this.policy = policy;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Counts compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                Counts counts = new Counts();
+                for (int i = from; i < to; i++) {
+                    new ExpenseRun(workflow, users, expenses.get(i), counts).run(policy);
+                }
+                return counts;
+            }
+            int middle = (from + to) >>> 1;
+            ReplayTask left = new ReplayTask(workflow, users, expenses, policy, from, middle);
+            left.fork();
+            Counts counts = new ReplayTask(workflow, users, expenses, policy, middle, to).compute();
+            counts.merge(left.join());
+            return counts;
+        }
+    }
+
+    private record PendingApproval(Long approverId, User.Role role, int stepOrder) {
+    }
+
+    // The state ApprovalService keeps in Approval rows, the tally and the expense cursor, for one expense
+    private static final class ExpenseRun {
+
+        private final CompiledWorkflow workflow;
+        private final UserSnapshot users;
+        private final SimulatedExpense expense;
+        private final Counts counts;
+        private final ApprovalTally tally;
+        private final Set<Long> assigned = new HashSet<>();
+        private final ArrayDeque<PendingApproval> pending = new ArrayDeque<>();
+        private Integer cursorStep;
+        private ExpenseStatus status = ExpenseStatus.IN_PROGRESS;
+
+        ExpenseRun(CompiledWorkflow workflow, UserSnapshot users, SimulatedExpense expense, Counts counts) {
+            this.workflow = workflow;
+            this.users = users;
+            this.expense = expense;
+            this.counts = counts;
+            this.tally = new ApprovalTally(expense.id());
+        }
+
+        void run(DecisionPolicy policy) {
+            if (workflow.managerApprover() && expense.managerId() != null) {
+                assign(expense.managerId(), users.roleOf(expense.managerId()), 0);
+                cursorStep = 0;
+                counts.routed(0);
+            } else {
+                openNextStep(1);
+            }
+
+            // Decisions are applied in the order the approvals were created, as the outbox would
+            while (status == ExpenseStatus.IN_PROGRESS && !pending.isEmpty()) {
+                PendingApproval approval = pending.poll();
+                ApprovalStatus decision = policy.decide(expense, approval.approverId(), approval.stepOrder());
+                if (decision != ApprovalStatus.APPROVED && decision != ApprovalStatus.REJECTED) {
+                    continue; // This approver never acts
+                }
+                tally.recordDecision(approval.approverId(), approval.role(), decision);
+                if (decision == ApprovalStatus.REJECTED) {
+                    status = ExpenseStatus.REJECTED;
+                } else if (cursorStep == null) {
+                    applyRules();
+                } else if (cursorStep == approval.stepOrder()) {
+                    openNextStep(cursorStep + 1);
+                }
+            }
+            counts.finished(status, status == ExpenseStatus.IN_PROGRESS ? 0 : pending.size());
+        }
+
+        private void openNextStep(int fromStepOrder) {
+            for (CompiledStep step : workflow.stepsFor(expense.amount()).tailMap(fromStepOrder, true).values()) {
+                boolean opened = false;
+                for (Long approverId : approversFor(step)) {
+                    if (!assigned.contains(approverId)) {
+                        assign(approverId, users.roleOf(approverId), step.stepOrder());
+                        opened = true;
+                    }
+                }
+                if (opened) {
+                    cursorStep = step.stepOrder();
+                    counts.routed(step.stepOrder());
+                    return;
+                }
+            }
+            cursorStep = null;
+            applyRules();
+        }
+
+        private List<Long> approversFor(CompiledStep step) {
+            if (step.approverUserId() != null) {
+                return users.contains(step.approverUserId()) ? List.of(step.approverUserId()) : List.of();
+            }
+            User.Role role = step.approverRole();
+            return role != null ? users.activeIdsWithRole(role) : List.of();
+        }
+
+        private void assign(Long approverId, User.Role role, int stepOrder) {
+            assigned.add(approverId);
+            pending.add(new PendingApproval(approverId, role, stepOrder));
+            tally.recordAssigned(role);
+            counts.approvalsCreated++;
+        }
+
+        private void applyRules() {
+            RuleOutcome outcome = workflow.approvalCondition().evaluate(ApprovalState.of(tally));
+            if (outcome == RuleOutcome.APPROVED) {
+                status = ExpenseStatus.APPROVED;
+            } else if (outcome == RuleOutcome.IMPOSSIBLE) {
+                status = ExpenseStatus.REJECTED;
+            }
+        }
+    }
+
+    // Per-task counters, merged up the fork/join tree
+    private static final class Counts {
+
+        private long expenses;
+        private long approvalsCreated;
+        private long approvalsSkipped;
+        private final Map<Integer, Long> routedByStep = new HashMap<>();
+        private final long[] byStatus = new long[ExpenseStatus.values().length];
+
+        void routed(int stepOrder) {
+            routedByStep.merge(stepOrder, 1L, Long::sum);
+        }
+
+        void finished(ExpenseStatus status, int skipped) {
+            expenses++;
+            approvalsSkipped += skipped;
+            byStatus[status.ordinal()]++;
+        }
+
+        void merge(Counts other) {
+            expenses += other.expenses;
+            approvalsCreated += other.approvalsCreated;
+            approvalsSkipped += other.approvalsSkipped;
+            other.routedByStep.forEach((step, count) -> routedByStep.merge(step, count, Long::sum));
+            for (int i = 0; i < byStatus.length; i++) {
+                byStatus[i] += other.byStatus[i];
+            }
+        }
+
+        SimulationReport toReport() {
+            Map<ExpenseStatus, Long> statusCounts = new EnumMap<>(ExpenseStatus.class);
+            for (ExpenseStatus status : ExpenseStatus.values()) {
+                statusCounts.put(status, byStatus[status.ordinal()]);
+            }
+            return new SimulationReport(expenses, new TreeMap<>(routedByStep), approvalsCreated, approvalsSkipped,
+                    statusCounts);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.expenseapproval.service.sla;
+
+
+import com.example.expenseapproval.model.Approval.SlaStage;
+
+import java.time.LocalDateTime;
+
+// What the escalation scheduler needs to re-arm the timer of a pending approval after a restart
+public record PendingApprovalSla(Long approvalId, LocalDateTime createdAt, SlaStage slaStage) {
+}
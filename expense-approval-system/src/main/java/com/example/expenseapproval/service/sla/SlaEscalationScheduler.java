@@ -0,0 +1,231 @@
+package com.example.expenseapproval.service.sla;
+
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.expenseapproval.model.Approval;
+import com.example.expenseapproval.model.Approval.ApprovalStatus;
+import com.example.expenseapproval.model.Approval.SlaStage;
+import com.example.expenseapproval.model.User;
+import com.example.expenseapproval.repository.ApprovalRepository;
+import com.example.expenseapproval.service.OptimisticRetry;
+import com.example.expenseapproval.service.audit.AuditTrail;
+
+import jakarta.annotation.PostConstruct;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reminds approvers of approvals left pending too long and then escalates them to the approver's manager.
+ * Each pending approval has one timer in a {@link TimerWheel}, armed for its next SLA stage. Timers are
+ * loaded once at startup from the pending approvals (their stage is persisted on the row, so nothing fires
+ * twice across restarts), added when ApprovalService creates approvals and cancelled when they are decided.
+ * Approvals closed in bulk (SKIPPED) are dropped when their timer fires and finds them no longer pending.
+ */
+@Component
+public class SlaEscalationScheduler {
+
+    // Most due timers handled per transaction
+    private static final int FIRE_BATCH_SIZE = 200;
+
+    @Autowired
+    private ApprovalRepository approvalRepository;
+
+    @Autowired
+    private AuditTrail auditTrail;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Value("${approval.sla.reminder-after:PT24H}")
+    private Duration reminderAfter;
+
+    @Value("${approval.sla.escalate-after:PT72H}")
+    private Duration escalateAfter;
+
+    @Value("${approval.sla.tick-ms:1000}")
+    private long tickMillis;
+
+    private record SlaTimer(Long approvalId, LocalDateTime createdAt, SlaStage stage) {
+    }
+
+    // Timer changes made inside a transaction, applied once it commits
+    private static final class PendingChanges {
+        private final List<SlaTimer> tracked = new ArrayList<>();
+        private final List<Long> cancelled = new ArrayList<>();
+    }
+
+    private TimerWheel<SlaTimer> wheel;
+    private final ConcurrentMap<Long, TimerWheel.Timeout<SlaTimer>> timers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        wheel = new TimerWheel<>(tickMillis, System.currentTimeMillis());
+    }
+
+    // Reads only the pending approvals (idx_approvals_status), not the approval history
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPendingApprovals() {
+        for (PendingApprovalSla pending : approvalRepository.findPendingSla()) {
+            arm(pending.approvalId(), pending.createdAt(), pending.slaStage());
+        }
+    }
+
+    public void trackAfterCommit(Approval approval) {
+        SlaTimer timer = new SlaTimer(approval.getId(), approval.getCreatedAt(), SlaStage.NONE);
+        PendingChanges changes = pendingChanges();
+        if (changes == null) {
+            arm(timer.approvalId(), timer.createdAt(), timer.stage());
+        } else {
+            changes.tracked.add(timer);
+        }
+    }
+
+    public void cancelAfterCommit(Long approvalId) {
+        PendingChanges changes = pendingChanges();
+        if (changes == null) {
+            cancel(approvalId);
+        } else {
+            changes.cancelled.add(approvalId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${approval.sla.tick-ms:1000}")
+    public void tick() {
+        List<SlaTimer> due = wheel.advance(System.currentTimeMillis());
+        for (int from = 0; from < due.size(); from += FIRE_BATCH_SIZE) {
+            List<SlaTimer> batch = due.subList(from, Math.min(from + FIRE_BATCH_SIZE, due.size()));
+            batch.forEach(timer -> timers.remove(timer.approvalId()));
+            try {
+                List<SlaTimer> next = optimisticRetry.inTransaction(tx -> fire(batch));
+                next.forEach(timer -> arm(timer.approvalId(), timer.createdAt(), timer.stage()));
+            } catch (RuntimeException e) {
+                System.err.println("SLA escalation failed for " + batch.size() + " approvals: " + e.getMessage());
+                // Retried on the next tick
+                batch.forEach(timer -> timers.computeIfAbsent(timer.approvalId(),
+                        id -> wheel.schedule(System.currentTimeMillis(), timer)));
+            }
+        }
+    }
+
+    public int trackedApprovals() {
+        return wheel.size();
+    }
+
+    // Applies each due stage and returns the timers for the stage after it
+    private List<SlaTimer> fire(List<SlaTimer> batch) {
+        Map<Long, Approval> approvals = new HashMap<>();
+        for (Approval approval : approvalRepository.findAllWithExpenseByIdIn(batch.stream().map(SlaTimer::approvalId).toList())) {
+            approvals.put(approval.getId(), approval);
+        }
+
+        List<SlaTimer> next = new ArrayList<>();
+        for (SlaTimer timer : batch) {
+            Approval approval = approvals.get(timer.approvalId());
+            if (approval == null || approval.getStatus() != ApprovalStatus.PENDING) {
+                continue; // Decided or skipped since the timer was armed
+            }
+            SlaStage target = nextStage(timer.stage());
+            if (target == null || approval.getSlaStage().ordinal() >= target.ordinal()) {
+                // Another instance got there first; follow on from the stage it recorded
+                next.add(new SlaTimer(approval.getId(), approval.getCreatedAt(), approval.getSlaStage()));
+                continue;
+            }
+
+            approval.setSlaStage(target);
+            User approver = approval.getApprover();
+            if (target == SlaStage.REMINDED) {
+                audit(approver, "APPROVAL_SLA_REMINDER", approval,
+                        "Pending since " + approval.getCreatedAt() + "; reminder sent to approver " + approver.getId());
+            } else {
+                User manager = approver.getManager();
+                audit(manager, "APPROVAL_SLA_ESCALATED", approval, manager != null
+                        ? "Pending since " + approval.getCreatedAt() + "; escalated to manager " + manager.getId()
+                        : "Pending since " + approval.getCreatedAt() + "; approver " + approver.getId() + " has no manager");
+            }
+            if (nextStage(target) != null) {
+                next.add(new SlaTimer(approval.getId(), approval.getCreatedAt(), target));
+            }
+        }
+        return next;
+    }
+
+    private void audit(User user, String action, Approval approval, String message) {
+        auditTrail.record(user != null ? user.getId() : null, action, "Approval", approval.getId(), null, message);
+    }
+
+    // Arms the timer for the stage after `reached`; approvals that were already escalated need none
+    private void arm(Long approvalId, LocalDateTime createdAt, SlaStage reached) {
+        SlaStage target = nextStage(reached);
+        if (target == null || createdAt == null) {
+            return;
+        }
+        Duration after = target == SlaStage.REMINDED ? reminderAfter : escalateAfter;
+        long deadline = createdAt.plus(after).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        timers.compute(approvalId, (id, existing) -> {
+            if (existing != null) {
+                wheel.cancel(existing);
+            }
+            return wheel.schedule(deadline, new SlaTimer(approvalId, createdAt, reached));
+        });
+    }
+
+    private void cancel(Long approvalId) {
+        TimerWheel.Timeout<SlaTimer> timeout = timers.remove(approvalId);
+        if (timeout != null) {
+            wheel.cancel(timeout);
+        }
+    }
+
+    private static SlaStage nextStage(SlaStage reached) {
+        switch (reached) {
+            case NONE:
+                return SlaStage.REMINDED;
+            case REMINDED:
+                return SlaStage.ESCALATED;
+            default:
+                return null;
+        }
+    }
+
+    // The current transaction's change list, registered for after-commit on first use; null outside a transaction
+    private PendingChanges pendingChanges() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        PendingChanges changes = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            PendingChanges created = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    created.tracked.forEach(timer -> arm(timer.approvalId(), timer.createdAt(), timer.stage()));
+                    created.cancelled.forEach(SlaEscalationScheduler.this::cancel);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SlaEscalationScheduler.this);
+                }
+            });
+            changes = created;
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.expenseapproval.service.sla;
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timer wheel: {@code LEVELS} wheels of {@code SLOTS} slots, the slots of level L each
+ * spanning SLOTS^L ticks. A timer sits in the lowest level whose span reaches its deadline; when time
+ * enters a higher-level slot, that slot's timers cascade down. Scheduling and cancelling are O(1), and
+ * each tick touches only the slots that are due. Deadlines beyond the top level wait in an overflow list.
+ * All methods are synchronized; callbacks run outside the wheel (advance returns the due payloads).
+ */
+public final class TimerWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+
+    public static final class Timeout<T> {
+        private final long deadlineTick;
+        private final T payload;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+        private Bucket<T> bucket;
+
+        private Timeout(long deadlineTick, T payload) {
+            this.deadlineTick = deadlineTick;
+            this.payload = payload;
+        }
+
+        public T payload() {
+            return payload;
+        }
+    }
+
+    // Doubly-linked list of timers around a sentinel node
+    private static final class Bucket<T> {
+        private final Timeout<T> head = new Timeout<>(0, null);
+
+        Bucket() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.prev = head.prev;
+            timeout.next = head;
+            head.prev.next = timeout;
+            head.prev = timeout;
+        }
+
+        static <T> void remove(Timeout<T> timeout) {
+            timeout.prev.next = timeout.next;
+            timeout.next.prev = timeout.prev;
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        List<Timeout<T>> drain() {
+            List<Timeout<T>> drained = new ArrayList<>();
+            while (head.next != head) {
+                Timeout<T> timeout = head.next;
+                remove(timeout);
+                drained.add(timeout);
+            }
+            return drained;
+        }
+    }
+
+    private final long tickMillis;
+    private final Bucket<T>[][] wheels;
+    private final Bucket<T> overflow = new Bucket<>();
+    private final Bucket<T> due = new Bucket<>();
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.wheels = new Bucket[LEVELS][SLOTS];
+        for (Bucket<T>[] wheel : wheels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheel[slot] = new Bucket<>();
+            }
+        }
+    }
+
+    public synchronized Timeout<T> schedule(long deadlineMillis, T payload) {
+        // Rounded up, so a timer never fires before its deadline
+        Timeout<T> timeout = new Timeout<>(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), payload);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.bucket == null) {
+            return false; // Already fired or cancelled
+        }
+        Bucket.remove(timeout);
+        size--;
+        return true;
+    }
+
+    // Moves time forward to nowMillis and returns the payloads of every timer that came due, in no particular order
+    public synchronized List<T> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<T> fired = new ArrayList<>();
+        collect(due, fired);
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            collect(due, fired); // Cascaded timers due exactly now
+            collect(wheels[0][(int) (currentTick & (SLOTS - 1))], fired);
+        }
+        return fired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void place(Timeout<T> timeout) {
+        long deadline = timeout.deadlineTick;
+        if (deadline <= currentTick) {
+            due.add(timeout);
+            return;
+        }
+        // The lowest level at which the deadline and the current tick agree on every higher digit
+        for (int level = 0; level < LEVELS; level++) {
+            int higherShift = SLOT_BITS * (level + 1);
+            if ((deadline >>> higherShift) == (currentTick >>> higherShift)) {
+                wheels[level][(int) ((deadline >>> (SLOT_BITS * level)) & (SLOTS - 1))].add(timeout);
+                return;
+            }
+        }
+        overflow.add(timeout);
+    }
+
+    // Re-places the timers of every higher-level slot the current tick has just entered
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            long lowerTicks = currentTick & ((1L << (SLOT_BITS * level)) - 1);
+            if (lowerTicks != 0) {
+                return;
+            }
+            for (Timeout<T> timeout : wheels[level][(int) ((currentTick >>> (SLOT_BITS * level)) & (SLOTS - 1))].drain()) {
+                place(timeout);
+            }
+        }
+        if ((currentTick & ((1L << (SLOT_BITS * LEVELS)) - 1)) != 0) {
+            return;
+        }
+        // The top level wrapped: the overflow may now fit
+        for (Timeout<T> timeout : overflow.drain()) {
+            place(timeout);
+        }
+    }
+
+    private void collect(Bucket<T> bucket, List<T> fired) {
+        for (Timeout<T> timeout : bucket.drain()) {
+            fired.add(timeout.payload);
+            size--;
+        }
+    }
+}
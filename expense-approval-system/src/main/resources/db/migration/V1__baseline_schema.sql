@@ -0,0 +1,203 @@
+-- Baseline schema for the current entity model (pooled sequences, versioned rows, the approval outbox and
+-- tallies). Databases are always built from here: those created by the old ddl-auto=create use IDENTITY ids and
+-- Hibernate-generated constraint names and lack most of these objects, so they are rebuilt, not adopted. Later
+-- migrations rely on the constraint names given here.
+
+create sequence approval_outbox_seq start with 1 increment by 50;
+create sequence approval_rules_seq start with 1 increment by 50;
+create sequence approval_steps_seq start with 1 increment by 50;
+create sequence approval_workflows_seq start with 1 increment by 50;
+create sequence approvals_seq start with 1 increment by 50;
+create sequence audit_logs_seq start with 1 increment by 50;
+create sequence companies_seq start with 1 increment by 50;
+create sequence expenses_seq start with 1 increment by 50;
+create sequence test_table_seq start with 1 increment by 50;
+create sequence users_seq start with 1 increment by 50;
+
+create table approval_outbox (
+    approval_id bigint not null unique,
+    created_at timestamp(6),
+    expense_id bigint not null,
+    id bigint not null,
+    processed_at timestamp(6),
+    version bigint,
+    decision varchar(15) not null check (decision in ('PENDING','APPROVED','REJECTED','SKIPPED')),
+    primary key (id)
+);
+
+create table approval_rules (
+    is_active boolean,
+    percentage_required numeric(5,2),
+    id bigint not null,
+    specific_approver_id bigint,
+    workflow_id bigint not null,
+    rule_type varchar(20) check (rule_type in ('PERCENTAGE','SPECIFIC_APPROVER','HYBRID')),
+    expression TEXT,
+    primary key (id)
+);
+
+create table approval_steps (
+    max_amount numeric(12,2),
+    min_amount numeric(12,2),
+    step_order integer not null,
+    approver_user_id bigint,
+    id bigint not null,
+    workflow_id bigint,
+    comment varchar(255),
+    role varchar(255) not null,
+    status varchar(255) not null check (status in ('PENDING','APPROVED','REJECTED')),
+    primary key (id)
+);
+
+create table approval_tallies (
+    approved_count integer not null,
+    approvers_assigned integer not null,
+    rejected_count integer not null,
+    expense_id bigint not null,
+    updated_at timestamp(6),
+    version bigint,
+    approved_approver_ids bigint array,
+    approved_by_role integer array,
+    assigned_by_role integer array,
+    rejected_by_role integer array,
+    primary key (expense_id)
+);
+
+create table approval_workflows (
+    is_active boolean,
+    is_manager_approver boolean,
+    company_id bigint not null,
+    created_at timestamp(6),
+    id bigint not null,
+    name varchar(100) not null,
+    primary key (id)
+);
+
+create table approvals (
+    workflow_step integer,
+    approved_at timestamp(6),
+    approver_id bigint not null,
+    created_at timestamp(6),
+    expense_id bigint not null,
+    id bigint not null,
+    version bigint,
+    sla_stage varchar(15) not null check (sla_stage in ('NONE','REMINDED','ESCALATED')),
+    status varchar(15) not null check (status in ('PENDING','APPROVED','REJECTED','SKIPPED')),
+    remarks TEXT,
+    primary key (id)
+);
+
+create table audit_logs (
+    created_at timestamp(6),
+    entity_id bigint,
+    id bigint not null,
+    user_id bigint,
+    ip_address varchar(45),
+    entity_type varchar(50),
+    action varchar(100) not null,
+    new_value TEXT,
+    old_value TEXT,
+    primary key (id)
+);
+
+create table companies (
+    created_at timestamp(6),
+    id bigint not null,
+    updated_at timestamp(6),
+    base_currency varchar(10) not null,
+    name varchar(100) not null,
+    primary key (id)
+);
+
+create table expenses (
+    amount numeric(12,2) not null,
+    expense_date date not null,
+    workflow_step integer,
+    created_at timestamp(6),
+    id bigint not null,
+    submitted_at timestamp(6),
+    updated_at timestamp(6),
+    user_id bigint not null,
+    version bigint,
+    workflow_id bigint,
+    currency varchar(10) not null,
+    status varchar(20) not null check (status in ('PENDING','APPROVED','REJECTED','IN_PROGRESS')),
+    category varchar(50) not null,
+    paid_by varchar(100),
+    description TEXT,
+    outstanding_approval_ids bigint array,
+    primary key (id)
+);
+
+create table password_reset_tokens (
+    created_at timestamp(6),
+    expires_at timestamp(6),
+    user_id bigint not null,
+    token varchar(64) not null,
+    primary key (user_id, token)
+);
+
+create table test_table (
+    created_at timestamp(6),
+    id bigint not null,
+    name varchar(50),
+    primary key (id)
+);
+
+create table users (
+    is_active boolean,
+    company_id bigint not null,
+    created_at timestamp(6),
+    id bigint not null,
+    manager_id bigint,
+    updated_at timestamp(6),
+    role varchar(20) not null check (role in ('ADMIN','MANAGER','EMPLOYEE')),
+    email varchar(100) not null unique,
+    name varchar(100) not null,
+    password_hash varchar(255) not null,
+    primary key (id)
+);
+
+create index idx_approval_outbox_pending on approval_outbox (processed_at, expense_id);
+create index idx_approvals_status on approvals (status, created_at);
+create index idx_approvals_approver_status on approvals (approver_id, status, created_at);
+create index idx_companies_created_id on companies (created_at, id);
+create index idx_expenses_workflow_cursor on expenses (workflow_id, workflow_step);
+create index idx_expenses_created_id on expenses (created_at, id);
+create index idx_users_created_id on users (created_at, id);
+
+alter table approval_rules
+    add constraint fk_approval_rules_specific_approver_id foreign key (specific_approver_id) references users;
+
+alter table approval_rules
+    add constraint fk_approval_rules_workflow_id foreign key (workflow_id) references approval_workflows;
+
+alter table approval_steps
+    add constraint fk_approval_steps_approver_user_id foreign key (approver_user_id) references users;
+
+alter table approval_steps
+    add constraint fk_approval_steps_workflow_id foreign key (workflow_id) references approval_workflows;
+
+alter table approval_workflows
+    add constraint fk_approval_workflows_company_id foreign key (company_id) references companies;
+
+alter table approvals
+    add constraint fk_approvals_approver_id foreign key (approver_id) references users;
+
+alter table approvals
+    add constraint fk_approvals_expense_id foreign key (expense_id) references expenses;
+
+alter table audit_logs
+    add constraint fk_audit_logs_user_id foreign key (user_id) references users;
+
+alter table expenses
+    add constraint fk_expenses_user_id foreign key (user_id) references users;
+
+alter table password_reset_tokens
+    add constraint fk_password_reset_tokens_user_id foreign key (user_id) references users;
+
+alter table users
+    add constraint fk_users_company_id foreign key (company_id) references companies;
+
+alter table users
+    add constraint fk_users_manager_id foreign key (manager_id) references users;
@@ -0,0 +1,17 @@
+-- Composite indexes for the hot repository finders (checked by FinderIndexPlanTests).
+-- approvals(approver_id, status) is already covered by idx_approvals_approver_status (approver_id, status, created_at).
+
+-- ApprovalRepository.findByExpenseIdAndApproverId, findByExpenseId
+create index idx_approvals_expense_approver on approvals (expense_id, approver_id);
+
+-- ExpenseRepository.findByUserIdAndStatus, findByUserId, findSummariesByUserId
+create index idx_expenses_user_status on expenses (user_id, status);
+
+-- ApprovalStepRepository.findByWorkflowIdAndStepOrder, findByWorkflowIdOrderByStepOrderAsc
+create index idx_approval_steps_workflow_order on approval_steps (workflow_id, step_order);
+
+-- AuditLogRepository.findByEntityTypeAndEntityId
+create index idx_audit_logs_entity on audit_logs (entity_type, entity_id);
+
+-- UserRepository.findActiveIdsByCompanyIdAndRole (ApproverIndex)
+create index idx_users_company_role on users (company_id, role);
@@ -0,0 +1,79 @@
+-- Monthly range partitions on created_at for expenses and audit_logs.
+-- created_at is written once, at insert, from the application clock, so new rows always land in the current
+-- month's partition and old months go cold for good; expense_date is user-entered and may be back-dated,
+-- which would scatter writes across archived months. PartitionMaintenance keeps future months created and
+-- detaches expired ones.
+--
+-- The primary keys become (id, created_at), since a unique key on a partitioned table must contain the
+-- partition key. Ids still come from the sequences and stay unique on their own. For the same reason
+-- approvals.expense_id can no longer reference expenses; approvals are removed with their expense through
+-- the JPA cascade.
+
+-- Creates (if missing) the partition of `parent` covering the month of `any_day`; returns its name
+create function create_monthly_partition(parent text, any_day date) returns text
+    language plpgsql as $$
+declare
+    first_day date := date_trunc('month', any_day)::date;
+    partition_name text := format('%s_p%s', parent, to_char(first_day, 'YYYYMM'));
+begin
+    execute format('create table if not exists %I partition of %I for values from (%L) to (%L)',
+                   partition_name, parent, first_day, (first_day + interval '1 month')::date);
+    return partition_name;
+end;
+$$;
+
+-- expenses
+
+alter table approvals drop constraint fk_approvals_expense_id;
+
+alter table expenses rename to expenses_unpartitioned;
+alter index expenses_pkey rename to expenses_unpartitioned_pkey;
+drop index idx_expenses_workflow_cursor, idx_expenses_created_id, idx_expenses_user_status;
+
+update expenses_unpartitioned set created_at = coalesce(submitted_at, now()) where created_at is null;
+
+create table expenses (like expenses_unpartitioned including defaults including constraints)
+    partition by range (created_at);
+alter table expenses alter column created_at set not null;
+alter table expenses add primary key (id, created_at);
+
+select create_monthly_partition('expenses', m::date)
+from generate_series(date_trunc('month', coalesce((select min(created_at) from expenses_unpartitioned), now())),
+                     date_trunc('month', now()) + interval '3 months',
+                     interval '1 month') as m;
+
+insert into expenses select * from expenses_unpartitioned;
+drop table expenses_unpartitioned;
+
+create index idx_expenses_workflow_cursor on expenses (workflow_id, workflow_step);
+create index idx_expenses_created_id on expenses (created_at, id);
+create index idx_expenses_user_status on expenses (user_id, status);
+
+alter table expenses
+    add constraint fk_expenses_user_id foreign key (user_id) references users;
+
+-- audit_logs
+
+alter table audit_logs rename to audit_logs_unpartitioned;
+alter index audit_logs_pkey rename to audit_logs_unpartitioned_pkey;
+drop index idx_audit_logs_entity;
+
+update audit_logs_unpartitioned set created_at = now() where created_at is null;
+
+create table audit_logs (like audit_logs_unpartitioned including defaults including constraints)
+    partition by range (created_at);
+alter table audit_logs alter column created_at set not null;
+alter table audit_logs add primary key (id, created_at);
+
+select create_monthly_partition('audit_logs', m::date)
+from generate_series(date_trunc('month', coalesce((select min(created_at) from audit_logs_unpartitioned), now())),
+                     date_trunc('month', now()) + interval '3 months',
+                     interval '1 month') as m;
+
+insert into audit_logs select * from audit_logs_unpartitioned;
+drop table audit_logs_unpartitioned;
+
+create index idx_audit_logs_entity on audit_logs (entity_type, entity_id);
+
+alter table audit_logs
+    add constraint fk_audit_logs_user_id foreign key (user_id) references users;
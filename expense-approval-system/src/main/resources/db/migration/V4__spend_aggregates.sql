@@ -0,0 +1,25 @@
+-- Dashboard spend aggregates: one row per (company, month of expense_date, user, category, currency, status)
+-- holding the number of expenses and their total amount. SpendAggregates keeps the rows current by applying
+-- each transaction's net +/- deltas as upserts before it commits, so dashboard queries read buckets, not expenses.
+create table spend_aggregates (
+    company_id bigint not null,
+    month date not null,
+    user_id bigint not null,
+    category varchar(50) not null,
+    currency varchar(10) not null,
+    status varchar(20) not null check (status in ('PENDING','APPROVED','REJECTED','IN_PROGRESS')),
+    expense_count bigint not null,
+    total_amount numeric(19,2) not null,
+    primary key (company_id, month, user_id, category, currency, status)
+);
+
+-- SpendDashboardService.getUserMonthlySpend and the bucket removal when a user is deleted
+create index idx_spend_aggregates_user_month on spend_aggregates (user_id, month);
+
+-- Backfill from the expenses already on file
+insert into spend_aggregates (company_id, month, user_id, category, currency, status, expense_count, total_amount)
+select u.company_id, date_trunc('month', e.expense_date)::date, e.user_id, e.category, e.currency, e.status,
+       count(*), sum(e.amount)
+from expenses e
+join users u on u.id = e.user_id
+group by u.company_id, date_trunc('month', e.expense_date)::date, e.user_id, e.category, e.currency, e.status;
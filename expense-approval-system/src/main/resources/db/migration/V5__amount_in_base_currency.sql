@@ -0,0 +1,31 @@
+-- Expense amounts converted to the company's base currency when the expense is written (FxRates), so routing,
+-- aggregates and reports never convert per row at query time.
+alter table expenses add column amount_in_base_currency numeric(12,2);
+
+-- Expenses already in the base currency need no rate; the rest stay null until BaseAmountBackfill converts them
+update expenses e
+set amount_in_base_currency = e.amount
+from users u
+join companies c on c.id = u.company_id
+where u.id = e.user_id
+  and upper(e.currency) = upper(c.base_currency);
+
+-- ExpenseRepository.findByAmountInBaseCurrencyIsNullAndIdGreaterThanOrderByIdAsc (BaseAmountBackfill); holds only
+-- the expenses still waiting for a rate, so it stays small
+create index idx_expenses_base_amount_missing on expenses (id) where amount_in_base_currency is null;
+
+-- Base-currency totals of the spend buckets; expenses not yet converted count as zero until backfilled
+alter table spend_aggregates add column total_in_base_currency numeric(19,2) not null default 0;
+alter table spend_aggregates alter column total_in_base_currency drop default;
+
+update spend_aggregates a
+set total_in_base_currency = s.total
+from (select u.company_id, date_trunc('month', e.expense_date)::date as month, e.user_id, e.category,
+             e.currency, e.status, sum(e.amount_in_base_currency) as total
+      from expenses e
+      join users u on u.id = e.user_id
+      where e.amount_in_base_currency is not null
+      group by u.company_id, date_trunc('month', e.expense_date)::date, e.user_id, e.category, e.currency,
+               e.status) s
+where a.company_id = s.company_id and a.month = s.month and a.user_id = s.user_id
+  and a.category = s.category and a.currency = s.currency and a.status = s.status;
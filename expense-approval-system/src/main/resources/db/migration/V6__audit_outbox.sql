@@ -0,0 +1,18 @@
+-- Audit events committed with their business transaction when audit.durability=OUTBOX; AuditLogWriter moves
+-- them into audit_logs in batches and deletes them here. No indexes beyond the key, so the insert stays cheap.
+create table audit_outbox (
+    id bigint generated always as identity primary key,
+    user_id bigint,
+    action varchar(100) not null,
+    entity_type varchar(50),
+    entity_id bigint,
+    old_value text,
+    new_value text,
+    ip_address varchar(45),
+    created_at timestamp(6) not null
+);
+
+-- Audit rows outlive the users they mention; deleting a user keeps their trail without the reference
+alter table audit_logs drop constraint fk_audit_logs_user_id;
+alter table audit_logs
+    add constraint fk_audit_logs_user_id foreign key (user_id) references users on delete set null;
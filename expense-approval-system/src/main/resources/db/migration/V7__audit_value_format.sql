@@ -0,0 +1,5 @@
+-- Entity changes are audited as field-level deltas with periodic full snapshots (AuditTrail.recordChange);
+-- value_format says how old_value/new_value of a row are encoded: SNAPSHOT, DELTA or TOMBSTONE. Null for
+-- free-text rows, which includes every row written before this migration.
+alter table audit_logs add column value_format varchar(16);
+alter table audit_outbox add column value_format varchar(16);
@@ -0,0 +1,6 @@
+-- Failure bookkeeping for the workflow advancer (ApprovalOutboxEvent): failed attempts, when the next one is due
+-- and when the event was parked after approval.advancer.max-attempts failures. Clearing parked_at (and
+-- next_attempt_at) puts a parked event back in line.
+alter table approval_outbox add column attempts integer not null default 0;
+alter table approval_outbox add column next_attempt_at timestamp(6);
+alter table approval_outbox add column parked_at timestamp(6);
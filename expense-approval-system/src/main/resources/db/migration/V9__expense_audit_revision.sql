@@ -0,0 +1,3 @@
+-- Count of each expense's audited changes (Expense.auditRevision), which spaces the full snapshots of the audit
+-- trail. Existing expenses start from 0, so their first snapshot may come up to one interval late.
+alter table expenses add column audit_revision bigint not null default 0;
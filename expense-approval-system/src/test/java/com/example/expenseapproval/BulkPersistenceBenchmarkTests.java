@@ -0,0 +1,120 @@
+package com.example.expenseapproval;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.expenseapproval.dto.ApprovalDecision;
+import com.example.expenseapproval.model.Approval;
+import com.example.expenseapproval.model.Approval.ApprovalStatus;
+import com.example.expenseapproval.model.ApprovalStep;
+import com.example.expenseapproval.model.Companymodel;
+import com.example.expenseapproval.model.Expense;
+import com.example.expenseapproval.model.User;
+import com.example.expenseapproval.repository.CompanyRepository;
+import com.example.expenseapproval.repository.UserRepository;
+import com.example.expenseapproval.service.ApprovalService;
+import com.example.expenseapproval.service.ExpenseService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Bulk insert throughput against the configured database. Opt-in: mvn test -Dbenchmark=true
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BulkPersistenceBenchmarkTests {
+
+	private static final int EXPENSES = 20_000;
+	private static final int EMPLOYEES = 200;
+
+	@Autowired
+	private CompanyRepository companyRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ExpenseService expenseService;
+
+	@Autowired
+	private ApprovalService approvalService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void bulkExpenseImportAndApprovalCreation() {
+		Companymodel company = new Companymodel();
+		company.setName("Benchmark Co");
+		company.setBaseCurrency("USD");
+		company = companyRepository.save(company);
+
+		User manager = userRepository.save(user(company, "manager", User.Role.MANAGER, null));
+		List<User> employees = new ArrayList<>();
+		for (int i = 0; i < EMPLOYEES; i++) {
+			employees.add(user(company, "employee" + i, User.Role.EMPLOYEE, manager));
+		}
+		employees = userRepository.saveAll(employees);
+
+		ApprovalStep managerStep = new ApprovalStep();
+		managerStep.setRole("MANAGER");
+		approvalService.createApprovalWorkflow(company.getId(), "Benchmark", false, List.of(managerStep), List.of());
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		// Expense import: each expense also starts its workflow, creating the manager's approval
+		List<User> submitters = employees;
+		statistics.clear();
+		long started = System.nanoTime();
+		int submitted = expenseService.submitExpenses(IntStream.range(0, EXPENSES)
+				.mapToObj(i -> expense(submitters.get(i % EMPLOYEES), i))
+				.iterator());
+		report("expense import", submitted, started, statistics);
+
+		// Bulk decisions on the approvals created above
+		List<ApprovalDecision> decisions = approvalService.getPendingApprovalsForApprover(manager.getId()).stream()
+				.map(Approval::getId)
+				.map(id -> new ApprovalDecision(id, ApprovalStatus.APPROVED, null))
+				.toList();
+		statistics.clear();
+		started = System.nanoTime();
+		approvalService.processApprovals(manager.getId(), decisions);
+		report("bulk approval", decisions.size(), started, statistics);
+	}
+
+	private static void report(String operation, int rows, long startedNanos, Statistics statistics) {
+		double seconds = (System.nanoTime() - startedNanos) / 1e9;
+		System.out.printf("%s: %d rows in %.2fs (%.0f rows/s), %d entity inserts, %d updates, %d prepared statements%n",
+				operation, rows, seconds, rows / seconds, statistics.getEntityInsertCount(),
+				statistics.getEntityUpdateCount(), statistics.getPrepareStatementCount());
+	}
+
+	private static User user(Companymodel company, String name, User.Role role, User manager) {
+		User user = new User();
+		user.setCompanies(company);
+		user.setName(name);
+		user.setEmail(name + "-" + System.nanoTime() + "@benchmark.test");
+		user.setPasswordHash("x");
+		user.setRole(role);
+		user.setManager(manager);
+		return user;
+	}
+
+	private static Expense expense(User submitter, int i) {
+		Expense expense = new Expense();
+		expense.setUser(submitter);
+		expense.setAmount(BigDecimal.valueOf(10 + i % 990));
+		expense.setCurrency("USD");
+		expense.setCategory("Travel");
+		expense.setExpenseDate(LocalDate.now());
+		return expense;
+	}
+}
@@ -0,0 +1,80 @@
+package com.example.expenseapproval.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.expenseapproval.config.BoundedRegionFactory.RegionStats;
+
+class BoundedStorageAccessTest {
+
+	@Test
+	void theLeastRecentlyUsedEntryIsEvictedOverTheBound() {
+		BoundedStorageAccess region = new BoundedStorageAccess("users", 2, 0);
+		region.putIntoCache("a", "A", null);
+		region.putIntoCache("b", "B", null);
+		assertEquals("A", region.getFromCache("a", null)); // b is now the least recently used
+
+		region.putIntoCache("c", "C", null);
+
+		assertNull(region.getFromCache("b", null));
+		assertEquals("A", region.getFromCache("a", null));
+		assertEquals("C", region.getFromCache("c", null));
+		RegionStats stats = region.stats();
+		assertEquals(2, stats.size());
+		assertEquals(3, stats.puts());
+		assertEquals(1, stats.evictions());
+		assertEquals(3, stats.hits());
+		assertEquals(1, stats.misses());
+	}
+
+	@Test
+	void anEntryExpiresItsTtlAfterItWasWritten() throws InterruptedException {
+		BoundedStorageAccess region = new BoundedStorageAccess("query", 10, Duration.ofMillis(50).toNanos());
+		region.putIntoCache("q", "rows", null);
+		assertEquals("rows", region.getFromCache("q", null));
+
+		Thread.sleep(80);
+
+		assertFalse(region.contains("q"));
+		assertNull(region.getFromCache("q", null));
+		RegionStats stats = region.stats();
+		assertEquals(0, stats.size());
+		assertEquals(1, stats.expirations());
+		assertEquals(0, stats.evictions());
+	}
+
+	@Test
+	void expiredEntriesMakeRoomBeforeLiveOnesAreEvicted() throws InterruptedException {
+		BoundedStorageAccess region = new BoundedStorageAccess("query", 2, Duration.ofMillis(50).toNanos());
+		region.putIntoCache("old", "stale", null);
+		Thread.sleep(80);
+		region.putIntoCache("a", "A", null);
+
+		region.putIntoCache("b", "B", null);
+
+		assertEquals("A", region.getFromCache("a", null));
+		assertEquals("B", region.getFromCache("b", null));
+		assertEquals(1, region.stats().expirations());
+		assertEquals(0, region.stats().evictions());
+	}
+
+	@Test
+	void theTimestampsRegionNeverEvicts() {
+		BoundedStorageAccess region = new BoundedStorageAccess("default-update-timestamps-region", 0, 0);
+		for (int i = 0; i < 10_000; i++) {
+			region.putIntoCache("table" + i, (long) i, null);
+		}
+
+		assertTrue(region.contains("table0"));
+		assertEquals(0L, region.getFromCache("table0", null));
+		assertEquals(10_000, region.stats().size());
+		assertEquals(0, region.stats().evictions());
+		assertEquals(0, region.stats().expirations());
+	}
+}
@@ -0,0 +1,86 @@
+package com.example.expenseapproval.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Routing decisions only: the pools are never connected to, and transactions are simulated through
+// TransactionSynchronizationManager the way the transaction manager sets it up
+class ReplicaRoutingDataSourceTest {
+
+	private final ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(new DriverManagerDataSource(),
+			List.of(new DriverManagerDataSource(), new DriverManagerDataSource()), Duration.ofSeconds(2));
+
+	private final ReadYourWrites readYourWrites = new ReadYourWrites();
+
+	@BeforeEach
+	void beginTransaction() {
+		ReflectionTestUtils.setField(readYourWrites, "window", Duration.ofMinutes(1));
+		TransactionSynchronizationManager.initSynchronization();
+		routing.recordLag("replica-0", 0L);
+		routing.recordLag("replica-1", 0L);
+	}
+
+	@AfterEach
+	void endTransaction() {
+		TransactionSynchronizationManager.clearSynchronization();
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		TransactionSynchronizationManager.unbindResourceIfPossible(readOnlyPinKey());
+	}
+
+	@Test
+	void readWriteTransactionsUseThePrimary() {
+		assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+	}
+
+	@Test
+	void readOnlyTransactionsAlternateBetweenReplicas() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		assertEquals("replica-0", routing.determineCurrentLookupKey());
+		assertEquals("replica-1", routing.determineCurrentLookupKey());
+		assertEquals("replica-0", routing.determineCurrentLookupKey());
+	}
+
+	@Test
+	void laggingOrUnmeasuredReplicasAreSkipped() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		routing.recordLag("replica-0", 5_000L);
+		assertEquals("replica-1", routing.determineCurrentLookupKey());
+		assertEquals("replica-1", routing.determineCurrentLookupKey());
+
+		routing.recordLag("replica-1", null);
+		assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+	}
+
+	@Test
+	void readsFollowingTheUsersOwnWriteStayOnThePrimary() {
+		// User 7's write transaction commits...
+		readYourWrites.recordWriteAfterCommit(7L);
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		TransactionSynchronizationManager.clearSynchronization();
+		// ...then read-only transactions start
+		TransactionSynchronizationManager.initSynchronization();
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		readYourWrites.readAs(8L);
+		assertEquals("replica-0", routing.determineCurrentLookupKey());
+
+		readYourWrites.readAs(7L);
+		assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+	}
+
+	private static Object readOnlyPinKey() {
+		return ReflectionTestUtils.getField(ReadYourWrites.class, "PINNED_TO_PRIMARY");
+	}
+}
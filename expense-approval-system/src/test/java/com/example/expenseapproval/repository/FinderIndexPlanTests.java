@@ -0,0 +1,136 @@
+package com.example.expenseapproval.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+// The hot repository finders against the migrated schema: each must be answerable from its composite index.
+// Sequential scans are switched off for the transaction, so the plan uses the index whenever one applies
+// (on near-empty tables the planner would otherwise scan regardless). On the partitioned tables every
+// partition is scanned through its copy of the composite index, and time windows prune to their months.
+@SpringBootTest
+@Transactional
+class FinderIndexPlanTests {
+
+	private static final Pattern INDEX_NAME = Pattern.compile("\"Index Name\": \"([^\"]+)\"");
+	private static final Pattern RELATION_NAME = Pattern.compile("\"Relation Name\": \"([^\"]+)\"");
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void disableSequentialScans() {
+		jdbcTemplate.execute("set local enable_seqscan = off");
+	}
+
+	@Test
+	void approvalsByApproverAndStatus() {
+		// ApprovalRepository.findByApproverIdAndStatus, findInboxByApproverIdAndStatusOrderByCreatedAtAsc
+		assertIndexScan("select * from approvals where approver_id = 1 and status = 'PENDING' order by created_at",
+				"idx_approvals_approver_status");
+	}
+
+	@Test
+	void approvalsByExpenseAndApprover() {
+		// ApprovalRepository.findByExpenseIdAndApproverId, findByExpenseId
+		assertIndexScan("select * from approvals where expense_id = 1 and approver_id = 2",
+				"idx_approvals_expense_approver");
+		assertIndexScan("select * from approvals where expense_id = 1", "idx_approvals_expense_approver");
+	}
+
+	@Test
+	void expensesByUserAndStatus() {
+		// ExpenseRepository.findByUserIdAndStatus, findByUserId
+		assertIndexScan("select * from expenses where user_id = 1 and status = 'PENDING'", "idx_expenses_user_status");
+		assertIndexScan("select * from expenses where user_id = 1", "idx_expenses_user_status");
+	}
+
+	@Test
+	void approvalStepsByWorkflowAndOrder() {
+		// ApprovalStepRepository.findByWorkflowIdAndStepOrder, findByWorkflowIdOrderByStepOrderAsc
+		assertIndexScan("select * from approval_steps where workflow_id = 1 and step_order = 2",
+				"idx_approval_steps_workflow_order");
+		assertIndexScan("select * from approval_steps where workflow_id = 1 order by step_order",
+				"idx_approval_steps_workflow_order");
+	}
+
+	@Test
+	void auditLogsByEntity() {
+		// AuditLogRepository.findByEntityTypeAndEntityId
+		assertIndexScan("select * from audit_logs where entity_type = 'Expense' and entity_id = 1",
+				"idx_audit_logs_entity");
+	}
+
+	@Test
+	void usersByCompanyAndRole() {
+		// UserRepository.findActiveIdsByCompanyIdAndRole
+		assertIndexScan("select id from users where company_id = 1 and role = 'MANAGER' and is_active = true order by id",
+				"idx_users_company_role");
+	}
+
+	@Test
+	void expenseTimeWindowsPruneToTheirPartitions() {
+		// ExpenseRepository.streamForExport, findSimulatedByCompanyIdAndSubmittedAtBetween, findPageAfter
+		YearMonth month = YearMonth.now();
+		assertThat(scannedRelations("select * from expenses where created_at >= '" + month.atDay(1)
+				+ "' and created_at < '" + month.plusMonths(1).atDay(1) + "'"))
+				.containsOnly(partition("expenses", month));
+	}
+
+	@Test
+	void auditLogTimeWindowsPruneToTheirPartitions() {
+		YearMonth month = YearMonth.now();
+		assertThat(scannedRelations("select * from audit_logs where created_at >= '" + month.atDay(1)
+				+ "' and created_at < '" + month.plusMonths(1).atDay(1) + "'"))
+				.containsOnly(partition("audit_logs", month));
+	}
+
+	private void assertIndexScan(String sql, String indexName) {
+		String plan = explain(sql);
+		assertThat(plan).as(sql).doesNotContain("\"Node Type\": \"Seq Scan\"");
+		assertThat(matches(INDEX_NAME, plan).stream().map(this::declaredIndex).toList()).as(sql)
+				.isNotEmpty()
+				.containsOnly(indexName);
+	}
+
+	private List<String> scannedRelations(String sql) {
+		return matches(RELATION_NAME, explain(sql));
+	}
+
+	private String explain(String sql) {
+		return String.join("\n", jdbcTemplate.queryForList("explain (format json) " + sql, String.class));
+	}
+
+	// A partition's index is attached to the index declared on the partitioned table; plans name the former
+	private String declaredIndex(String index) {
+		List<String> parents = jdbcTemplate.queryForList("select p.relname from pg_inherits i "
+				+ "join pg_class c on c.oid = i.inhrelid join pg_class p on p.oid = i.inhparent where c.relname = ?",
+				String.class, index);
+		return parents.isEmpty() ? index : parents.get(0);
+	}
+
+	private static String partition(String table, YearMonth month) {
+		return table + "_p" + month.format(DateTimeFormatter.ofPattern("yyyyMM"));
+	}
+
+	private static List<String> matches(Pattern pattern, String plan) {
+		List<String> found = new ArrayList<>();
+		Matcher matcher = pattern.matcher(plan);
+		while (matcher.find()) {
+			found.add(matcher.group(1));
+		}
+		return found;
+	}
+}
@@ -0,0 +1,101 @@
+package com.example.expenseapproval.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.expenseapproval.config.ReadYourWrites;
+import com.example.expenseapproval.model.Approval;
+import com.example.expenseapproval.model.Approval.ApprovalStatus;
+import com.example.expenseapproval.model.ApprovalOutboxEvent;
+import com.example.expenseapproval.model.Expense;
+import com.example.expenseapproval.model.User;
+import com.example.expenseapproval.repository.ApprovalOutboxRepository;
+import com.example.expenseapproval.repository.ApprovalRepository;
+import com.example.expenseapproval.service.audit.AuditTrail;
+import com.example.expenseapproval.service.sla.SlaEscalationScheduler;
+
+// The same approval decided twice at once: the loser must see an optimistic conflict, never the outbox's unique key
+class ApprovalDecisionConflictTest {
+
+	private final ApprovalRepository approvalRepository = mock(ApprovalRepository.class);
+
+	private final ApprovalOutboxRepository approvalOutboxRepository = mock(ApprovalOutboxRepository.class);
+
+	private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+	private final OptimisticRetry optimisticRetry = new OptimisticRetry();
+
+	private final ApprovalService approvalService = new ApprovalService();
+
+	@BeforeEach
+	void setUp() {
+		when(transactionTemplate.execute(any())).thenAnswer(
+				invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+		ReflectionTestUtils.setField(optimisticRetry, "transactionTemplate", transactionTemplate);
+		ReflectionTestUtils.setField(optimisticRetry, "maxAttempts", 3);
+		ReflectionTestUtils.setField(optimisticRetry, "initialBackoffMs", 1L);
+		ReflectionTestUtils.setField(optimisticRetry, "maxBackoffMs", 1L);
+		ReflectionTestUtils.setField(approvalService, "approvalRepository", approvalRepository);
+		ReflectionTestUtils.setField(approvalService, "approvalOutboxRepository", approvalOutboxRepository);
+		ReflectionTestUtils.setField(approvalService, "optimisticRetry", optimisticRetry);
+		ReflectionTestUtils.setField(approvalService, "slaEscalationScheduler", mock(SlaEscalationScheduler.class));
+		ReflectionTestUtils.setField(approvalService, "readYourWrites", mock(ReadYourWrites.class));
+		ReflectionTestUtils.setField(approvalService, "auditTrail", mock(AuditTrail.class));
+	}
+
+	@Test
+	void theDecisionIsFlushedBeforeItsOutboxEventIsQueued() {
+		when(approvalRepository.findById(5L)).thenReturn(Optional.of(pendingApproval()));
+
+		approvalService.processApproval(5L, 7L, ApprovalStatus.APPROVED, null);
+
+		InOrder order = inOrder(approvalRepository, approvalOutboxRepository);
+		order.verify(approvalRepository).save(any(Approval.class));
+		order.verify(approvalRepository).flush();
+		order.verify(approvalOutboxRepository).save(any(ApprovalOutboxEvent.class));
+	}
+
+	@Test
+	void aConcurrentDecisionIsRetriedAndReportedAsAlreadyProcessed() {
+		Approval decidedMeanwhile = pendingApproval();
+		decidedMeanwhile.setStatus(ApprovalStatus.REJECTED);
+		when(approvalRepository.findById(5L)).thenReturn(Optional.of(pendingApproval()), Optional.of(decidedMeanwhile));
+		doThrow(new ObjectOptimisticLockingFailureException(Approval.class, 5L)).doNothing().when(approvalRepository).flush();
+
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+				() -> approvalService.processApproval(5L, 7L, ApprovalStatus.APPROVED, null));
+		assertEquals("Approval request has already been processed.", e.getMessage());
+		verify(approvalOutboxRepository, never()).save(any(ApprovalOutboxEvent.class));
+		assertEquals(new OptimisticRetry.Stats(1, 1, 0), optimisticRetry.stats());
+	}
+
+	private static Approval pendingApproval() {
+		User approver = new User();
+		approver.setId(7L);
+		Expense expense = new Expense();
+		expense.setId(3L);
+		Approval approval = new Approval();
+		approval.setId(5L);
+		approval.setApprover(approver);
+		approval.setExpense(expense);
+		approval.setStatus(ApprovalStatus.PENDING);
+		return approval;
+	}
+}
@@ -0,0 +1,39 @@
+package com.example.expenseapproval.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.expenseapproval.model.User.Role;
+import com.example.expenseapproval.repository.UserRepository;
+
+class ApproverIndexTest {
+
+	private final UserRepository userRepository = mock(UserRepository.class);
+
+	private final ApproverIndex approverIndex = new ApproverIndex();
+
+	@Test
+	void aListLoadedBeforeAnInvalidationIsNotServedAfterIt() {
+		ReflectionTestUtils.setField(approverIndex, "userRepository", userRepository);
+		// The user change commits while the first query is running
+		when(userRepository.findActiveIdsByCompanyIdAndRole(1L, Role.MANAGER))
+				.thenAnswer(invocation -> {
+					approverIndex.invalidate(1L);
+					return List.of(10L, 11L);
+				})
+				.thenReturn(List.of(10L));
+
+		assertEquals(List.of(10L, 11L), approverIndex.approverIds(1L, Role.MANAGER));
+		assertEquals(List.of(10L), approverIndex.approverIds(1L, Role.MANAGER));
+		assertEquals(List.of(10L), approverIndex.approverIds(1L, Role.MANAGER));
+		verify(userRepository, times(2)).findActiveIdsByCompanyIdAndRole(1L, Role.MANAGER); // Cached from the second load
+	}
+}
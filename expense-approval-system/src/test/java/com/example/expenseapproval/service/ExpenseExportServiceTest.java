@@ -0,0 +1,85 @@
+package com.example.expenseapproval.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.expenseapproval.dto.ExpenseExportRow;
+import com.example.expenseapproval.model.Expense.ExpenseStatus;
+import com.example.expenseapproval.repository.ExpenseRepository;
+import com.example.expenseapproval.service.ExpenseExportService.ExportFormat;
+
+class ExpenseExportServiceTest {
+
+	private static final LocalDateTime FROM = LocalDateTime.of(2026, 3, 1, 0, 0);
+
+	private static final LocalDateTime TO = LocalDateTime.of(2026, 4, 1, 0, 0);
+
+	private static final List<ExpenseExportRow> ROWS = List.of(
+			new ExpenseExportRow(1L, 7L, "ana@example.com", new BigDecimal("12.50"), "EUR", new BigDecimal("13.60"),
+					"Travel", "Taxi, airport", LocalDate.of(2026, 3, 2), "Card", ExpenseStatus.APPROVED,
+					LocalDateTime.of(2026, 3, 2, 9, 30, 15)),
+			new ExpenseExportRow(2L, 7L, "ana@example.com", new BigDecimal("5"), "JPY", null, "Meals",
+					"The \"good\" place\r\nsecond line", null, null, ExpenseStatus.PENDING, null));
+
+	private final ExpenseRepository expenseRepository = mock(ExpenseRepository.class);
+
+	private final ExpenseExportService exportService = new ExpenseExportService();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(exportService, "expenseRepository", expenseRepository);
+		when(expenseRepository.streamForExport(1L, FROM, TO)).thenAnswer(invocation -> ROWS.stream());
+	}
+
+	@Test
+	void csvQuotesSeparatorsQuotesAndLineBreaks() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		assertEquals(2, exportService.export(1L, FROM, TO, ExportFormat.CSV, out));
+
+		assertEquals("id,user_id,user_email,amount,currency,amount_in_base_currency,category,description,expense_date,"
+				+ "paid_by,status,submitted_at\r\n"
+				+ "1,7,ana@example.com,12.50,EUR,13.60,Travel,\"Taxi, airport\",2026-03-02,Card,APPROVED,2026-03-02T09:30:15\r\n"
+				+ "2,7,ana@example.com,5,JPY,,Meals,\"The \"\"good\"\" place\r\nsecond line\",,,PENDING,\r\n",
+				out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void jsonLinesWriteOneObjectPerLine() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		assertEquals(2, exportService.export(1L, FROM, TO, ExportFormat.JSON_LINES, out));
+
+		assertEquals("{\"id\":1,\"userId\":7,\"userEmail\":\"ana@example.com\",\"amount\":12.50,\"currency\":\"EUR\","
+				+ "\"amountInBaseCurrency\":13.60,\"category\":\"Travel\",\"description\":\"Taxi, airport\","
+				+ "\"expenseDate\":\"2026-03-02\",\"paidBy\":\"Card\",\"status\":\"APPROVED\","
+				+ "\"submittedAt\":\"2026-03-02T09:30:15\"}\n"
+				+ "{\"id\":2,\"userId\":7,\"userEmail\":\"ana@example.com\",\"amount\":5,\"currency\":\"JPY\","
+				+ "\"amountInBaseCurrency\":null,\"category\":\"Meals\","
+				+ "\"description\":\"The \\\"good\\\" place\\r\\nsecond line\",\"expenseDate\":null,\"paidBy\":null,"
+				+ "\"status\":\"PENDING\",\"submittedAt\":null}\n",
+				out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void anEmptyPeriodIsJustTheCsvHeader() {
+		when(expenseRepository.streamForExport(1L, FROM, TO)).thenAnswer(invocation -> List.<ExpenseExportRow>of().stream());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		assertEquals(0, exportService.export(1L, FROM, TO, ExportFormat.CSV, out));
+		assertEquals("id,user_id,user_email,amount,currency,amount_in_base_currency,category,description,expense_date,"
+				+ "paid_by,status,submitted_at\r\n", out.toString(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,100 @@
+package com.example.expenseapproval.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.expenseapproval.model.Approval;
+import com.example.expenseapproval.model.ApprovalTally;
+import com.example.expenseapproval.model.Companymodel;
+import com.example.expenseapproval.model.Expense;
+import com.example.expenseapproval.model.Expense.ExpenseStatus;
+import com.example.expenseapproval.model.User;
+import com.example.expenseapproval.repository.ApprovalRepository;
+import com.example.expenseapproval.repository.ApprovalTallyRepository;
+import com.example.expenseapproval.repository.ExpenseRepository;
+import com.example.expenseapproval.service.audit.AuditTrail;
+import com.example.expenseapproval.service.sla.SlaEscalationScheduler;
+
+// An expense in a foreign currency without a rate must not be routed on its unconverted amount
+class HeldWorkflowTest {
+
+	private final WorkflowDefinitionCache workflowDefinitionCache = mock(WorkflowDefinitionCache.class);
+
+	private final ApprovalTallyRepository approvalTallyRepository = mock(ApprovalTallyRepository.class);
+
+	private final ApprovalRepository approvalRepository = mock(ApprovalRepository.class);
+
+	private final ApprovalService approvalService = new ApprovalService();
+
+	private final CompiledWorkflow workflow = new CompiledWorkflow(9L, 1L, "Default", true, new TreeMap<>(),
+			StepRangeIndex.build(new TreeMap<>()), List.of(), null);
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(approvalService, "workflowDefinitionCache", workflowDefinitionCache);
+		ReflectionTestUtils.setField(approvalService, "approvalTallyRepository", approvalTallyRepository);
+		ReflectionTestUtils.setField(approvalService, "approvalRepository", approvalRepository);
+		ReflectionTestUtils.setField(approvalService, "expenseRepository", mock(ExpenseRepository.class));
+		ReflectionTestUtils.setField(approvalService, "slaEscalationScheduler", mock(SlaEscalationScheduler.class));
+		ReflectionTestUtils.setField(approvalService, "spendAggregates", mock(SpendAggregates.class));
+		ReflectionTestUtils.setField(approvalService, "auditTrail", mock(AuditTrail.class));
+		when(workflowDefinitionCache.getActiveWorkflow(1L)).thenReturn(Optional.of(workflow));
+		when(workflowDefinitionCache.getWorkflow(1L, 9L)).thenReturn(Optional.of(workflow));
+		when(approvalTallyRepository.save(any(ApprovalTally.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		when(approvalRepository.save(any(Approval.class))).thenAnswer(invocation -> {
+			Approval approval = invocation.getArgument(0);
+			approval.setId(50L);
+			return approval;
+		});
+	}
+
+	@Test
+	void aWorkflowWaitsForTheBaseAmountThenStartsOnItsPinnedDefinition() {
+		Expense expense = expense();
+		approvalService.initiateApprovalProcess(expense);
+
+		assertEquals(ExpenseStatus.PENDING, expense.getStatus());
+		assertEquals(9L, expense.getWorkflowId());
+		verify(approvalTallyRepository, never()).save(any(ApprovalTally.class));
+
+		approvalService.startHeldWorkflow(expense); // Still no rate
+		assertEquals(ExpenseStatus.PENDING, expense.getStatus());
+
+		expense.setAmountInBaseCurrency(new BigDecimal("330.00"));
+		approvalService.startHeldWorkflow(expense);
+		assertEquals(ExpenseStatus.IN_PROGRESS, expense.getStatus());
+		assertEquals(0, expense.getWorkflowStep());
+		verify(approvalTallyRepository).save(any(ApprovalTally.class));
+	}
+
+	private static Expense expense() {
+		Companymodel company = new Companymodel();
+		company.setId(1L);
+		User manager = new User();
+		manager.setId(8L);
+		manager.setRole(User.Role.MANAGER);
+		User submitter = new User();
+		submitter.setId(7L);
+		submitter.setCompanies(company);
+		submitter.setManager(manager);
+		Expense expense = new Expense();
+		expense.setId(3L);
+		expense.setUser(submitter);
+		expense.setAmount(new BigDecimal("50000"));
+		expense.setCurrency("JPY");
+		return expense;
+	}
+}
@@ -0,0 +1,75 @@
+package com.example.expenseapproval.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.expenseapproval.dto.CursorPage;
+import com.example.expenseapproval.service.KeysetPaging.Key;
+
+class KeysetPagingTest {
+
+	private final KeysetPaging paging = new KeysetPaging();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(paging, "defaultPageSize", 50);
+		ReflectionTestUtils.setField(paging, "maxPageSize", 200);
+	}
+
+	@Test
+	void pageSizesAreDefaultedAndClamped() {
+		assertEquals(50, paging.pageSize(null));
+		assertEquals(1, paging.pageSize(1));
+		assertEquals(200, paging.pageSize(1_000));
+		assertThrows(IllegalArgumentException.class, () -> paging.pageSize(0));
+		assertEquals(11, paging.probe(10).max());
+	}
+
+	@Test
+	void theNextPageTokenDecodesToTheLastRowOfThePage() {
+		List<Key> rows = List.of(
+				new Key(LocalDateTime.of(2026, 3, 1, 9, 30), 1L), // toString drops the zero seconds
+				new Key(LocalDateTime.of(2026, 3, 1, 9, 30, 15, 123_456_000), 2L),
+				new Key(LocalDateTime.of(2026, 3, 2, 8, 0), 3L));
+
+		CursorPage<Key> first = paging.page(rows.subList(0, 2), 1, Key::createdAt, Key::id);
+		assertEquals(List.of(rows.get(0)), first.items());
+		assertEquals(rows.get(0), paging.decode(first.nextPageToken()));
+
+		CursorPage<Key> second = paging.page(rows, 2, Key::createdAt, Key::id);
+		assertEquals(rows.subList(0, 2), second.items());
+		assertEquals(rows.get(1), paging.decode(second.nextPageToken()));
+	}
+
+	@Test
+	void theLastPageHasNoToken() {
+		List<Key> rows = List.of(new Key(LocalDateTime.of(2026, 3, 1, 9, 30), 1L));
+
+		CursorPage<Key> page = paging.page(rows, 1, Key::createdAt, Key::id);
+
+		assertEquals(rows, page.items());
+		assertNull(page.nextPageToken());
+	}
+
+	@Test
+	void malformedTokensAreRejected() {
+		assertThrows(IllegalArgumentException.class, () -> paging.decode("not base64!"));
+		assertThrows(IllegalArgumentException.class, () -> paging.decode(token("2026-03-01T09:30")));
+		assertThrows(IllegalArgumentException.class, () -> paging.decode(token("yesterday|5")));
+		assertThrows(IllegalArgumentException.class, () -> paging.decode(token("2026-03-01T09:30|five")));
+	}
+
+	private static String token(String raw) {
+		return Base64.getUrlEncoder().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+}
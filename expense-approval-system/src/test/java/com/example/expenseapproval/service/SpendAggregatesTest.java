@@ -0,0 +1,127 @@
+package com.example.expenseapproval.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.expenseapproval.model.Companymodel;
+import com.example.expenseapproval.model.Expense;
+import com.example.expenseapproval.model.Expense.ExpenseStatus;
+import com.example.expenseapproval.model.User;
+
+// Delta bookkeeping only: the upserts are captured instead of executed, and the transaction is simulated
+// through TransactionSynchronizationManager the way the transaction manager sets it up
+class SpendAggregatesTest {
+
+	private final List<Object[]> upserts = new ArrayList<>();
+
+	private final SpendAggregates spendAggregates = new SpendAggregates();
+
+	@BeforeEach
+	void beginTransaction() {
+		ReflectionTestUtils.setField(spendAggregates, "jdbcTemplate", new JdbcTemplate() {
+			@Override
+			public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+				upserts.addAll(batchArgs);
+				return new int[batchArgs.size()];
+			}
+		});
+		TransactionSynchronizationManager.initSynchronization();
+	}
+
+	@AfterEach
+	void endTransaction() {
+		TransactionSynchronizationManager.clearSynchronization();
+		TransactionSynchronizationManager.unbindResourceIfPossible(spendAggregates);
+	}
+
+	@Test
+	void onlyTheNetChangeOfTheTransactionIsWritten() {
+		Expense expense = expense(7L, "Travel", "120.00", LocalDate.of(2025, 3, 14));
+		spendAggregates.added(expense);
+		moveTo(expense, ExpenseStatus.IN_PROGRESS);
+		moveTo(expense, ExpenseStatus.APPROVED);
+
+		commit();
+
+		assertEquals(1, upserts.size());
+		assertArrayEquals(new Object[]{1L, LocalDate.of(2025, 3, 1), 7L, "Travel", "EUR", "APPROVED", 1L,
+				new BigDecimal("120.00"), new BigDecimal("130.80")}, upserts.get(0));
+	}
+
+	@Test
+	void anEditMovesTheAmountBetweenBuckets() {
+		Expense expense = expense(7L, "Travel", "120.00", LocalDate.of(2025, 3, 14));
+		spendAggregates.removed(expense);
+		expense.setAmount(new BigDecimal("80.00"));
+		expense.setAmountInBaseCurrency(new BigDecimal("87.20"));
+		expense.setCategory("Meals");
+		spendAggregates.added(expense);
+
+		commit();
+
+		// Written in key order: Meals before Travel
+		assertEquals(2, upserts.size());
+		assertEquals("Meals", upserts.get(0)[3]);
+		assertEquals(1L, upserts.get(0)[6]);
+		assertEquals(new BigDecimal("80.00"), upserts.get(0)[7]);
+		assertEquals(new BigDecimal("87.20"), upserts.get(0)[8]);
+		assertEquals("Travel", upserts.get(1)[3]);
+		assertEquals(-1L, upserts.get(1)[6]);
+		assertEquals(new BigDecimal("-120.00"), upserts.get(1)[7]);
+		assertEquals(new BigDecimal("-130.80"), upserts.get(1)[8]);
+	}
+
+	@Test
+	void nothingIsWrittenWhenTheChangesCancelOut() {
+		Expense expense = expense(7L, "Travel", "120.00", LocalDate.of(2025, 3, 14));
+		spendAggregates.removed(expense);
+		spendAggregates.added(expense);
+
+		commit();
+
+		assertTrue(upserts.isEmpty());
+	}
+
+	private void moveTo(Expense expense, ExpenseStatus status) {
+		ExpenseStatus from = expense.getStatus();
+		expense.setStatus(status);
+		spendAggregates.statusChanged(expense, from);
+	}
+
+	private void commit() {
+		TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+		TransactionSynchronizationManager.getSynchronizations()
+				.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+	}
+
+	private static Expense expense(Long userId, String category, String amount, LocalDate expenseDate) {
+		Companymodel company = new Companymodel();
+		company.setId(1L);
+		User user = new User();
+		user.setId(userId);
+		user.setCompanies(company);
+		Expense expense = new Expense();
+		expense.setUser(user);
+		expense.setCategory(category);
+		expense.setCurrency("EUR");
+		expense.setAmount(new BigDecimal(amount));
+		expense.setAmountInBaseCurrency(new BigDecimal(amount).multiply(new BigDecimal("1.09")).setScale(2));
+		expense.setExpenseDate(expenseDate);
+		expense.setStatus(ExpenseStatus.PENDING);
+		return expense;
+	}
+}
@@ -0,0 +1,88 @@
+package com.example.expenseapproval.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.expenseapproval.service.CompiledWorkflow.CompiledStep;
+
+// The index must agree with the per-step range check it replaced (the old determineApproversForStep)
+class StepRangeIndexTest {
+
+	@Test
+	void agreesWithThePerStepRangeCheck() {
+		NavigableMap<Integer, CompiledStep> steps = steps(
+				step(1, null, null),
+				step(2, "100", null),
+				step(3, null, "500"),
+				step(4, "100", "500"),
+				step(5, "300", "1000"), // Overlaps 4
+				step(6, "1000", "1000"));
+		StepRangeIndex index = StepRangeIndex.build(steps);
+
+		for (String amount : List.of("0", "99.99", "100", "100.00", "100.01", "299", "300", "450", "500", "500.01",
+				"999.99", "1000", "1000.0", "1000.01", "1000000")) {
+			assertEquals(covering(steps, new BigDecimal(amount)).keySet(),
+					index.stepsFor(new BigDecimal(amount)).keySet(), amount);
+		}
+	}
+
+	@Test
+	void boundsAreInclusive() {
+		StepRangeIndex index = StepRangeIndex.build(steps(step(1, "100", "500"), step(2, "500", null)));
+
+		assertEquals(List.of(1), List.copyOf(index.stepsFor(new BigDecimal("100")).keySet()));
+		assertEquals(List.of(1, 2), List.copyOf(index.stepsFor(new BigDecimal("500.00")).keySet()));
+		assertEquals(List.of(2), List.copyOf(index.stepsFor(new BigDecimal("500.01")).keySet()));
+	}
+
+	@Test
+	void anAmountOutsideEveryRangeHasNoSteps() {
+		StepRangeIndex index = StepRangeIndex.build(steps(step(1, "100", "200"), step(2, "300", "400")));
+
+		assertTrue(index.stepsFor(new BigDecimal("50")).isEmpty());
+		assertTrue(index.stepsFor(new BigDecimal("250")).isEmpty());
+		assertTrue(index.stepsFor(new BigDecimal("400.01")).isEmpty());
+	}
+
+	@Test
+	void anUnknownAmountGetsEveryStep() {
+		NavigableMap<Integer, CompiledStep> steps = steps(step(1, "100", "200"), step(2, null, null));
+
+		assertEquals(steps.keySet(), StepRangeIndex.build(steps).stepsFor(null).keySet());
+	}
+
+	private static NavigableMap<Integer, CompiledStep> covering(NavigableMap<Integer, CompiledStep> steps,
+			BigDecimal amount) {
+		NavigableMap<Integer, CompiledStep> covering = new TreeMap<>();
+		for (CompiledStep step : steps.values()) {
+			if (step.minAmount() != null && amount.compareTo(step.minAmount()) < 0) {
+				continue;
+			}
+			if (step.maxAmount() != null && amount.compareTo(step.maxAmount()) > 0) {
+				continue;
+			}
+			covering.put(step.stepOrder(), step);
+		}
+		return covering;
+	}
+
+	private static NavigableMap<Integer, CompiledStep> steps(CompiledStep... steps) {
+		NavigableMap<Integer, CompiledStep> byOrder = new TreeMap<>();
+		for (CompiledStep step : steps) {
+			byOrder.put(step.stepOrder(), step);
+		}
+		return byOrder;
+	}
+
+	private static CompiledStep step(int stepOrder, String minAmount, String maxAmount) {
+		return new CompiledStep((long) stepOrder, stepOrder, "MANAGER", null,
+				minAmount != null ? new BigDecimal(minAmount) : null, maxAmount != null ? new BigDecimal(maxAmount) : null);
+	}
+}
@@ -0,0 +1,76 @@
+package com.example.expenseapproval.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.expenseapproval.model.Approval.ApprovalStatus;
+import com.example.expenseapproval.model.ApprovalOutboxEvent;
+import com.example.expenseapproval.repository.ApprovalOutboxRepository;
+
+// A poison expense whose advancement always fails
+class WorkflowAdvancerTest {
+
+	private final ApprovalOutboxRepository approvalOutboxRepository = mock(ApprovalOutboxRepository.class);
+
+	private final ApprovalService approvalService = mock(ApprovalService.class);
+
+	private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+	private final WorkflowAdvancer advancer = new WorkflowAdvancer();
+
+	private final ApprovalOutboxEvent event = new ApprovalOutboxEvent(1L, 10L, ApprovalStatus.APPROVED);
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(advancer, "approvalOutboxRepository", approvalOutboxRepository);
+		ReflectionTestUtils.setField(advancer, "approvalService", approvalService);
+		ReflectionTestUtils.setField(advancer, "transactionTemplate", transactionTemplate);
+		ReflectionTestUtils.setField(advancer, "maxAttempts", 3);
+		ReflectionTestUtils.setField(advancer, "pollIntervalMs", 200L);
+		ReflectionTestUtils.setField(advancer, "maxBackoffMs", 60_000L);
+		when(transactionTemplate.execute(any())).thenAnswer(
+				invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+		when(approvalService.advancePendingDecisions(1L)).thenThrow(new IllegalStateException("poison"));
+		when(approvalOutboxRepository.findByExpenseIdAndProcessedAtIsNullOrderByIdAsc(1L)).thenReturn(List.of(event));
+	}
+
+	@Test
+	void failuresBackOffThenPark() {
+		advance();
+		assertEquals(1, event.getAttempts());
+		assertNotNull(event.getNextAttemptAt());
+		assertNull(event.getParkedAt());
+
+		LocalDateTime secondFailure = LocalDateTime.now();
+		advance();
+		assertEquals(2, event.getAttempts());
+		assertFalse(event.getNextAttemptAt().isBefore(secondFailure.plusNanos(400_000_000))); // The backoff doubled
+
+		advance();
+		assertEquals(3, event.getAttempts());
+		assertNotNull(event.getParkedAt());
+		assertEquals(new WorkflowAdvancer.Stats(3, 1), advancer.stats());
+
+		advance(); // A parked event is left alone even if its expense is advanced again
+		assertEquals(3, event.getAttempts());
+		assertEquals(new WorkflowAdvancer.Stats(4, 1), advancer.stats());
+	}
+
+	private void advance() {
+		ReflectionTestUtils.invokeMethod(advancer, "advance", 1L);
+	}
+}
@@ -0,0 +1,61 @@
+package com.example.expenseapproval.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.expenseapproval.model.ApprovalWorkflow;
+import com.example.expenseapproval.model.Companymodel;
+import com.example.expenseapproval.repository.ApprovalRuleRepository;
+import com.example.expenseapproval.repository.ApprovalStepRepository;
+import com.example.expenseapproval.repository.ApprovalWorkflowRepository;
+
+// Company 1's active workflow is 10; 20 is an older workflow of company 2
+class WorkflowDefinitionCacheTest {
+
+	private final ApprovalWorkflowRepository approvalWorkflowRepository = mock(ApprovalWorkflowRepository.class);
+
+	private final WorkflowDefinitionCache cache = new WorkflowDefinitionCache();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(cache, "approvalWorkflowRepository", approvalWorkflowRepository);
+		ReflectionTestUtils.setField(cache, "approvalStepRepository", mock(ApprovalStepRepository.class));
+		ReflectionTestUtils.setField(cache, "approvalRuleRepository", mock(ApprovalRuleRepository.class));
+		when(approvalWorkflowRepository.findFirstByCompanyIdAndIsActiveTrueOrderByIdDesc(1L))
+				.thenReturn(Optional.of(workflow(10L, 1L)));
+		when(approvalWorkflowRepository.findById(20L)).thenReturn(Optional.of(workflow(20L, 2L)));
+	}
+
+	@Test
+	void aWorkflowOfAnotherCompanyIsNeverReturned() {
+		assertTrue(cache.getWorkflow(1L, 20L).isEmpty());
+		assertEquals(20L, cache.getWorkflow(2L, 20L).orElseThrow().workflowId());
+		assertTrue(cache.getWorkflow(1L, 20L).isEmpty()); // Also once it is cached
+	}
+
+	@Test
+	void aMissingWorkflowIsLookedUpAgain() {
+		assertTrue(cache.getWorkflow(1L, 30L).isEmpty());
+
+		when(approvalWorkflowRepository.findById(30L)).thenReturn(Optional.of(workflow(30L, 1L)));
+		assertEquals(30L, cache.getWorkflow(1L, 30L).orElseThrow().workflowId());
+	}
+
+	private static ApprovalWorkflow workflow(Long id, Long companyId) {
+		Companymodel company = new Companymodel();
+		company.setId(companyId);
+		ApprovalWorkflow workflow = new ApprovalWorkflow();
+		workflow.setId(id);
+		workflow.setCompany(company);
+		workflow.setName("Default");
+		return workflow;
+	}
+}
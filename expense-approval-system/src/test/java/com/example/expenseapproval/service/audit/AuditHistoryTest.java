@@ -0,0 +1,132 @@
+package com.example.expenseapproval.service.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.expenseapproval.model.AuditLog;
+import com.example.expenseapproval.model.AuditLog.ValueFormat;
+import com.example.expenseapproval.model.Expense;
+import com.example.expenseapproval.service.audit.AuditTrail.Durability;
+
+// Changes go through AuditTrail into the writer's buffer and are replayed from there, as if read back from audit_logs
+class AuditHistoryTest {
+
+	private final AuditLogWriter writer = new AuditLogWriter();
+
+	private final AuditTrail auditTrail = new AuditTrail();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(writer, "bufferCapacity", 64);
+		writer.init();
+		ReflectionTestUtils.setField(auditTrail, "auditLogWriter", writer);
+		ReflectionTestUtils.setField(auditTrail, "durability", Durability.ASYNC);
+		ReflectionTestUtils.setField(auditTrail, "snapshotInterval", 3);
+		ReflectionTestUtils.setField(auditTrail, "compressMinBytes", 512);
+	}
+
+	@Test
+	void changesAreStoredAsDeltasWithPeriodicSnapshots() {
+		Map<String, String> state = expense("10.00");
+		auditTrail.recordChange(7L, "EXPENSE_CREATED", "Expense", 1L, 0L, null, state);
+		for (long revision = 1; revision <= 4; revision++) {
+			Map<String, String> next = expense((revision - 1) + "1.00");
+			auditTrail.recordChange(7L, "EXPENSE_UPDATED", "Expense", 1L, revision, state, next);
+			state = next;
+		}
+
+		List<AuditLog> entries = written();
+		assertEquals(List.of(ValueFormat.SNAPSHOT, ValueFormat.DELTA, ValueFormat.DELTA, ValueFormat.SNAPSHOT,
+				ValueFormat.DELTA), entries.stream().map(AuditLog::getValueFormat).toList());
+		assertEquals(Map.of("amount", "01.00"), AuditValues.decode(entries.get(1).getNewValue()));
+		assertEquals(Map.of("amount", "10.00"), AuditValues.decode(entries.get(1).getOldValue()));
+		assertEquals(state, AuditHistory.replay(entries).orElseThrow());
+		assertEquals(expense("11.00"), AuditHistory.replay(entries.subList(0, 3)).orElseThrow());
+		assertEquals(expense("21.00"), AuditHistory.replay(entries.subList(3, 4)).orElseThrow());
+	}
+
+	@Test
+	void snapshotsAreSpacedByAuditedChangesNotByVersion() {
+		Expense expense = new Expense();
+		Map<String, String> state = expense("10.00");
+		auditTrail.recordChange(7L, "EXPENSE_CREATED", "Expense", 1L, expense.getAuditRevision(), null, state);
+		// Changes in one transaction share a version; unaudited workflow changes make it skip ahead
+		long[] versions = { 0, 0, 0, 4, 9, 9, 30 };
+		for (int i = 0; i < versions.length; i++) {
+			expense.setVersion(versions[i]);
+			Map<String, String> next = expense(i + "2.00");
+			auditTrail.recordChange(7L, "EXPENSE_UPDATED", "Expense", 1L, expense.nextAuditRevision(), state, next);
+			state = next;
+		}
+
+		List<AuditLog> entries = written();
+		assertEquals(List.of(ValueFormat.SNAPSHOT, ValueFormat.DELTA, ValueFormat.DELTA, ValueFormat.SNAPSHOT,
+				ValueFormat.DELTA, ValueFormat.DELTA, ValueFormat.SNAPSHOT, ValueFormat.DELTA),
+				entries.stream().map(AuditLog::getValueFormat).toList());
+		assertEquals(state, AuditHistory.replay(entries).orElseThrow());
+	}
+
+	@Test
+	void aDeletedEntityHasNoState() {
+		Map<String, String> state = expense("10.00");
+		auditTrail.recordChange(7L, "EXPENSE_CREATED", "Expense", 1L, 0L, null, state);
+		auditTrail.recordChange(7L, "EXPENSE_DELETED", "Expense", 1L, 0L, state, null);
+
+		List<AuditLog> entries = written();
+		assertEquals(ValueFormat.TOMBSTONE, entries.get(1).getValueFormat());
+		assertEquals(state, AuditValues.decode(entries.get(1).getOldValue()));
+		assertNull(entries.get(1).getNewValue());
+		assertTrue(AuditHistory.replay(entries).isEmpty());
+	}
+
+	@Test
+	void largeValuesAreCompressedAndClearedFieldsReplayAsNull() {
+		Map<String, String> before = expense("10.00");
+		before.put("description", "Team offsite, ".repeat(100));
+		Map<String, String> after = new LinkedHashMap<>(before);
+		after.put("description", null);
+		auditTrail.recordChange(7L, "EXPENSE_CREATED", "Expense", 1L, 0L, null, before);
+		auditTrail.recordChange(7L, "EXPENSE_UPDATED", "Expense", 1L, 0L, before, after);
+
+		List<AuditLog> entries = written();
+		String snapshot = entries.get(0).getNewValue();
+		assertFalse(snapshot.startsWith("{"));
+		assertTrue(snapshot.length() < before.get("description").length());
+		assertEquals(before, AuditValues.decode(snapshot));
+		assertEquals(after, AuditHistory.replay(entries).orElseThrow());
+	}
+
+	private static Map<String, String> expense(String amount) {
+		Map<String, String> fields = new LinkedHashMap<>();
+		fields.put("amount", amount);
+		fields.put("currency", "EUR");
+		fields.put("description", "Taxi");
+		fields.put("status", "PENDING");
+		return fields;
+	}
+
+	private List<AuditLog> written() {
+		@SuppressWarnings("unchecked")
+		RingBuffer<AuditEvent> buffer = (RingBuffer<AuditEvent>) ReflectionTestUtils.getField(writer, "buffer");
+		List<AuditLog> entries = new ArrayList<>();
+		for (AuditEvent event = buffer.poll(); event != null; event = buffer.poll()) {
+			AuditLog entry = new AuditLog();
+			entry.setOldValue(event.oldValue());
+			entry.setNewValue(event.newValue());
+			entry.setValueFormat(event.valueFormat());
+			entries.add(entry);
+		}
+		return entries;
+	}
+}
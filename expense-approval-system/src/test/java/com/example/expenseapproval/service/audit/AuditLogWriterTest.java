@@ -0,0 +1,65 @@
+package com.example.expenseapproval.service.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.expenseapproval.service.audit.AuditTrail.Durability;
+
+// The database rejects any insert carrying the "bad" row, so every multi-row batch with it fails
+class AuditLogWriterTest {
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+	private final AuditLogWriter writer = new AuditLogWriter();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(writer, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(writer, "durability", Durability.ASYNC);
+		ReflectionTestUtils.setField(writer, "bufferCapacity", 16);
+		ReflectionTestUtils.setField(writer, "batchSize", 10);
+		writer.init();
+		when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+			Object[] parameters = (Object[]) invocation.getRawArguments()[1];
+			if (Arrays.asList(parameters).contains("bad")) {
+				throw new DataIntegrityViolationException("value too long");
+			}
+			return parameters.length / 9;
+		});
+	}
+
+	@Test
+	void onlyTheRowsThatStillFailOnTheLastAttemptAreDiscarded() {
+		writer.offer(event("ok"));
+		writer.offer(event("bad"));
+		writer.offer(event("ok"));
+
+		for (int attempt = 1; attempt < 10; attempt++) {
+			writer.flush();
+			assertEquals(3, writer.queued());
+		}
+		assertEquals(9, writer.failedBatches());
+		assertEquals(0, writer.written());
+
+		writer.flush();
+		assertEquals(2, writer.written());
+		assertEquals(1, writer.discarded());
+		assertEquals(0, writer.queued());
+	}
+
+	private static AuditEvent event(String newValue) {
+		return new AuditEvent(7L, "EXPENSE_UPDATED", "Expense", 1L, null, newValue, null, null, LocalDateTime.now());
+	}
+}
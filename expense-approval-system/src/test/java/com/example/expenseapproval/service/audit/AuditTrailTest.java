@@ -0,0 +1,80 @@
+package com.example.expenseapproval.service.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.expenseapproval.service.audit.AuditTrail.AuditStats;
+import com.example.expenseapproval.service.audit.AuditTrail.Durability;
+
+// ASYNC mode with the writer never flushing; transactions are simulated through TransactionSynchronizationManager
+class AuditTrailTest {
+
+	private final AuditLogWriter writer = new AuditLogWriter();
+
+	private final AuditTrail auditTrail = new AuditTrail();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(writer, "bufferCapacity", 4);
+		writer.init();
+		ReflectionTestUtils.setField(auditTrail, "auditLogWriter", writer);
+		ReflectionTestUtils.setField(auditTrail, "durability", Durability.ASYNC);
+		ReflectionTestUtils.setField(auditTrail, "enqueueTimeoutMillis", 1L);
+	}
+
+	@AfterEach
+	void endTransaction() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		TransactionSynchronizationManager.unbindResourceIfPossible(auditTrail);
+	}
+
+	@Test
+	void eventsOfATransactionAreQueuedOnlyOnceItCommits() {
+		TransactionSynchronizationManager.initSynchronization();
+		auditTrail.record(7L, "EXPENSE_CREATED", "Expense", 1L, null, "new");
+		auditTrail.record(7L, "EXPENSE_UPDATED", "Expense", 1L, "new", "edited");
+		assertEquals(0, auditTrail.stats().queued());
+
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+		assertEquals(2, auditTrail.stats().queued());
+	}
+
+	@Test
+	void eventsOfARolledBackTransactionAreNeverQueued() {
+		TransactionSynchronizationManager.initSynchronization();
+		auditTrail.record(7L, "EXPENSE_CREATED", "Expense", 1L, null, "new");
+
+		complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+		assertEquals(0, auditTrail.stats().queued());
+	}
+
+	@Test
+	void aFullBufferPushesBackThenDrops() {
+		for (long i = 0; i < 6; i++) {
+			auditTrail.record(null, "APPROVAL_SLA_REMINDER", "Approval", i, null, null);
+		}
+
+		AuditStats stats = auditTrail.stats();
+		assertEquals(6, stats.published());
+		assertEquals(4, stats.queued());
+		assertEquals(2, stats.backpressured());
+		assertEquals(2, stats.dropped());
+	}
+
+	private void complete(int status) {
+		if (status == TransactionSynchronization.STATUS_COMMITTED) {
+			TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		}
+		TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(status));
+		TransactionSynchronizationManager.clearSynchronization();
+	}
+}
@@ -0,0 +1,85 @@
+package com.example.expenseapproval.service.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class RingBufferTest {
+
+	@Test
+	void capacityIsRoundedUpToAPowerOfTwo() {
+		assertEquals(1, new RingBuffer<>(1).capacity());
+		assertEquals(8, new RingBuffer<>(5).capacity());
+		assertEquals(8, new RingBuffer<>(8).capacity());
+	}
+
+	@Test
+	void offerFailsWhenFullAndItemsComeOutInOrderAcrossLaps() {
+		RingBuffer<Integer> buffer = new RingBuffer<>(4);
+		for (int lap = 0; lap < 3; lap++) {
+			for (int i = 0; i < 4; i++) {
+				assertTrue(buffer.offer(lap * 4 + i));
+			}
+			assertFalse(buffer.offer(-1));
+			assertEquals(4, buffer.size());
+
+			List<Integer> drained = new ArrayList<>();
+			assertEquals(3, buffer.drainTo(drained, 3));
+			assertEquals(Integer.valueOf(lap * 4 + 3), buffer.poll());
+			assertEquals(List.of(lap * 4, lap * 4 + 1, lap * 4 + 2), drained);
+			assertNull(buffer.poll());
+		}
+	}
+
+	@Test
+	void concurrentProducersLoseNothingAndDuplicateNothing() throws InterruptedException {
+		int producers = 4;
+		int perProducer = 50_000;
+		RingBuffer<Integer> buffer = new RingBuffer<>(1024);
+		ExecutorService pool = Executors.newFixedThreadPool(producers);
+		CountDownLatch start = new CountDownLatch(1);
+		for (int p = 0; p < producers; p++) {
+			int first = p * perProducer;
+			pool.execute(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (int i = first; i < first + perProducer; i++) {
+					while (!buffer.offer(i)) {
+						Thread.onSpinWait(); // Full: wait for the consumer
+					}
+				}
+			});
+		}
+
+		start.countDown();
+		BitSet seen = new BitSet(producers * perProducer);
+		int received = 0;
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while (received < producers * perProducer && System.nanoTime() < deadline) {
+			Integer item = buffer.poll();
+			if (item != null) {
+				assertFalse(seen.get(item), "delivered twice: " + item);
+				seen.set(item);
+				received++;
+			}
+		}
+		pool.shutdown();
+
+		assertEquals(producers * perProducer, received);
+		assertNull(buffer.poll());
+	}
+}
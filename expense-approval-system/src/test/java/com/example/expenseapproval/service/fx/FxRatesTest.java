@@ -0,0 +1,68 @@
+package com.example.expenseapproval.service.fx;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class FxRatesTest {
+
+	@TempDir
+	Path ratesDir;
+
+	private final FxRates fxRates = new FxRates();
+
+	@BeforeEach
+	void loadRates() throws IOException {
+		Files.writeString(ratesDir.resolve("rates.csv"), String.join("\n",
+				"date,currency,rate",
+				"# Friday rates only",
+				"2025-03-14,EUR,0.9200",
+				"2025-03-14,GBP,0.7700",
+				"2025-03-17,EUR,0.9100",
+				"2025-03-17,XYZ,not-a-rate"));
+		ReflectionTestUtils.setField(fxRates, "ratesLocation", ratesDir.toUri() + "*.csv");
+		ReflectionTestUtils.setField(fxRates, "pivotCurrency", "USD");
+		ReflectionTestUtils.setField(fxRates, "maxRateAgeDays", 7);
+		fxRates.reload();
+	}
+
+	@Test
+	void convertsThroughThePivotAtTheRateOfTheDay() {
+		assertEquals(Optional.of(new BigDecimal("100.00")),
+				fxRates.convert(new BigDecimal("92.00"), "EUR", "USD", LocalDate.of(2025, 3, 14)));
+		assertEquals(Optional.of(new BigDecimal("91.00")),
+				fxRates.convert(new BigDecimal("100.00"), "usd", "eur", LocalDate.of(2025, 3, 17)));
+		// EUR -> GBP crosses USD: 92 EUR = 100 USD = 77 GBP
+		assertEquals(Optional.of(new BigDecimal("77.00")),
+				fxRates.convert(new BigDecimal("92.00"), "EUR", "GBP", LocalDate.of(2025, 3, 14)));
+	}
+
+	@Test
+	void datesWithoutARateTakeTheLastPublishedOne() {
+		// Saturday and Sunday use Friday's rate
+		assertEquals(Optional.of(new BigDecimal("100.00")),
+				fxRates.convert(new BigDecimal("92.00"), "EUR", "USD", LocalDate.of(2025, 3, 16)));
+		assertEquals(Optional.of(new BigDecimal("77.00")),
+				fxRates.convert(new BigDecimal("100.00"), "USD", "GBP", LocalDate.of(2025, 3, 21)));
+	}
+
+	@Test
+	void missingOrStaleRatesConvertToNothing() {
+		assertTrue(fxRates.convert(BigDecimal.TEN, "EUR", "USD", LocalDate.of(2025, 3, 13)).isEmpty());
+		assertTrue(fxRates.convert(BigDecimal.TEN, "GBP", "USD", LocalDate.of(2025, 3, 22)).isEmpty());
+		assertTrue(fxRates.convert(BigDecimal.TEN, "XYZ", "USD", LocalDate.of(2025, 3, 17)).isEmpty());
+		// The same currency needs no rate
+		assertEquals(Optional.of(BigDecimal.TEN), fxRates.convert(BigDecimal.TEN, "JPY", "JPY", LocalDate.of(2025, 3, 17)));
+	}
+}
@@ -0,0 +1,56 @@
+package com.example.expenseapproval.service.rules;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class RuleExpressionTest {
+
+	// Roles are indexed ADMIN, MANAGER, EMPLOYEE
+	private static ApprovalState state(int assigned, int approved, Long[] approvedIds, int[] assignedByRole,
+			int[] approvedByRole) {
+		return new ApprovalState(assigned, approved, 0, approvedIds, assignedByRole, approvedByRole, new int[3]);
+	}
+
+	@Test
+	void percentageIsDecidedAsSoonAsThePendingApproversCannotChangeIt() {
+		RuleExpression rule = RuleExpressionParser.parse("PERCENT(60)");
+
+		assertEquals(RuleOutcome.APPROVED, rule.evaluate(state(5, 3, new Long[] { 1L, 2L, 3L }, new int[3], new int[3])));
+		assertEquals(RuleOutcome.UNDECIDED, rule.evaluate(state(5, 2, new Long[] { 1L, 2L }, new int[3], new int[3])));
+		assertEquals(RuleOutcome.IMPOSSIBLE, rule.evaluate(new ApprovalState(5, 1, 3, new Long[] { 1L },
+				new int[3], new int[3], new int[3])));
+	}
+
+	@Test
+	void combinatorsShortCircuitOnTheDecidingChild() {
+		RuleExpression rule = RuleExpressionParser.parse("percent(50) and (APPROVER(7) or QUORUM(manager, 2))");
+
+		// Approver 7 approved, 2 of 4 approvals in: both sides of the AND already hold
+		assertEquals(RuleOutcome.APPROVED, rule.evaluate(state(4, 2, new Long[] { 3L, 7L },
+				new int[] { 0, 1, 3 }, new int[] { 0, 0, 2 })));
+		// Only one manager was assigned and approver 7 is not in: the OR can only rely on pending approvers
+		assertEquals(RuleOutcome.UNDECIDED, rule.evaluate(state(4, 2, new Long[] { 3L, 4L },
+				new int[] { 0, 1, 3 }, new int[] { 0, 1, 1 })));
+		// Nobody pending and the quorum is out of reach
+		assertEquals(RuleOutcome.IMPOSSIBLE, rule.evaluate(state(2, 2, new Long[] { 3L, 4L },
+				new int[] { 0, 1, 1 }, new int[] { 0, 1, 1 })));
+	}
+
+	@Test
+	void notInvertsDecidedOutcomesOnly() {
+		RuleExpression rule = RuleExpressionParser.parse("NOT APPROVER(9)");
+
+		assertEquals(RuleOutcome.IMPOSSIBLE, rule.evaluate(state(2, 1, new Long[] { 9L }, new int[3], new int[3])));
+		assertEquals(RuleOutcome.UNDECIDED, rule.evaluate(state(2, 1, new Long[] { 4L }, new int[3], new int[3])));
+	}
+
+	@Test
+	void malformedExpressionsAreRejected() {
+		assertThrows(IllegalArgumentException.class, () -> RuleExpressionParser.parse("PERCENT(60) AND"));
+		assertThrows(IllegalArgumentException.class, () -> RuleExpressionParser.parse("QUORUM(INTERN, 2)"));
+		assertThrows(IllegalArgumentException.class, () -> RuleExpressionParser.parse("PERCENT(120)"));
+		assertThrows(IllegalArgumentException.class, () -> RuleExpressionParser.parse("(APPROVER(1)"));
+	}
+}
@@ -0,0 +1,137 @@
+package com.example.expenseapproval.service.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.expenseapproval.model.Approval.ApprovalStatus;
+import com.example.expenseapproval.model.ApprovalRule;
+import com.example.expenseapproval.model.ApprovalRule.RuleType;
+import com.example.expenseapproval.model.ApprovalStep;
+import com.example.expenseapproval.model.ApprovalWorkflow;
+import com.example.expenseapproval.model.Companymodel;
+import com.example.expenseapproval.model.Expense.ExpenseStatus;
+import com.example.expenseapproval.model.User;
+import com.example.expenseapproval.model.User.Role;
+import com.example.expenseapproval.service.CompiledWorkflow;
+
+// Managers 10 and 11, admins 20 to 22; admin 23 is inactive
+class WorkflowSimulatorTest {
+
+	private static final UserSnapshot USERS = UserSnapshot.of(List.of(
+			new SimulatedUser(10L, Role.MANAGER, true),
+			new SimulatedUser(11L, Role.MANAGER, true),
+			new SimulatedUser(20L, Role.ADMIN, true),
+			new SimulatedUser(21L, Role.ADMIN, true),
+			new SimulatedUser(22L, Role.ADMIN, true),
+			new SimulatedUser(23L, Role.ADMIN, false)));
+
+	private static final List<SimulatedExpense> EXPENSES = List.of(
+			new SimulatedExpense(1L, new BigDecimal("500"), 10L),
+			new SimulatedExpense(2L, new BigDecimal("5000"), 10L),
+			new SimulatedExpense(3L, new BigDecimal("500"), null));
+
+	private final WorkflowSimulator simulator = new WorkflowSimulator();
+
+	@Test
+	void routesThroughTheManagerStepAndTheStepsCoveringTheAmount() {
+		CompiledWorkflow workflow = workflow(true, List.of(step(1, "MANAGER", null), step(2, "ADMIN", "1000")), List.of());
+
+		SimulationReport report = simulator.simulate(workflow, USERS, EXPENSES, DecisionPolicy.APPROVE_ALL);
+
+		// Manager 10 is already assigned at step 0, so step 1 only adds manager 11 for expenses 1 and 2;
+		// expense 2 also reaches the ADMIN step, which assigns the three active admins
+		assertEquals(3, report.expenses());
+		assertEquals(Map.of(0, 2L, 1, 3L, 2, 1L), report.routedByStep());
+		assertEquals(2 + 5 + 2, report.approvalsCreated());
+		assertEquals(0, report.approvalsSkipped());
+		assertEquals(3L, report.statusCounts().get(ExpenseStatus.APPROVED));
+	}
+
+	@Test
+	void aRejectionEndsTheExpense() {
+		CompiledWorkflow workflow = workflow(true, List.of(step(1, "MANAGER", null), step(2, "ADMIN", "1000")), List.of());
+
+		SimulationReport report = simulator.simulate(workflow, USERS, EXPENSES,
+				(expense, approverId, stepOrder) -> approverId == 11L ? ApprovalStatus.REJECTED : ApprovalStatus.APPROVED);
+
+		// Manager 11 rejects every expense, so expense 2 never reaches the ADMIN step
+		assertEquals(Map.of(0, 2L, 1, 3L), report.routedByStep());
+		assertEquals(3L, report.statusCounts().get(ExpenseStatus.REJECTED));
+		assertEquals(0L, report.statusCounts().get(ExpenseStatus.APPROVED));
+	}
+
+	@Test
+	void anImpossibleRuleRejects() {
+		ApprovalRule rule = new ApprovalRule();
+		rule.setRuleType(RuleType.SPECIFIC_APPROVER);
+		rule.setSpecificApprover(user(22L)); // Never assigned by a MANAGER step
+		CompiledWorkflow workflow = workflow(false, List.of(step(1, "MANAGER", null)), List.of(rule));
+
+		SimulationReport report = simulator.simulate(workflow, USERS, EXPENSES.subList(2, 3), DecisionPolicy.APPROVE_ALL);
+
+		assertEquals(2, report.approvalsCreated());
+		assertEquals(1L, report.statusCounts().get(ExpenseStatus.REJECTED));
+	}
+
+	@Test
+	void approvalsStillPendingWhenTheRulesSettleAreSkipped() {
+		ApprovalRule rule = new ApprovalRule();
+		rule.setRuleType(RuleType.PERCENTAGE);
+		rule.setPercentageRequired(new BigDecimal("50"));
+		CompiledWorkflow workflow = workflow(false, List.of(step(1, "ADMIN", null)), List.of(rule));
+
+		SimulationReport report = simulator.simulate(workflow, USERS, EXPENSES.subList(2, 3), DecisionPolicy.APPROVE_ALL);
+
+		// The inactive admin is never assigned; 2 of 3 approvals settle it and the third is skipped
+		assertEquals(3, report.approvalsCreated());
+		assertEquals(1, report.approvalsSkipped());
+		assertEquals(1L, report.statusCounts().get(ExpenseStatus.APPROVED));
+	}
+
+	@Test
+	void aSplitReplayAddsUpToTheSumOfItsParts() {
+		CompiledWorkflow workflow = workflow(true, List.of(step(1, "MANAGER", null), step(2, "ADMIN", "1000")), List.of());
+		List<SimulatedExpense> expenses = new ArrayList<>();
+		for (int copy = 0; copy < 3_000; copy++) {
+			expenses.addAll(EXPENSES); // 9,000 expenses: several fork/join splits
+		}
+
+		SimulationReport report = simulator.simulate(workflow, USERS, expenses, DecisionPolicy.APPROVE_ALL);
+
+		assertEquals(9_000, report.expenses());
+		assertEquals(Map.of(0, 6_000L, 1, 9_000L, 2, 3_000L), report.routedByStep());
+		assertEquals(9 * 3_000, report.approvalsCreated());
+		assertEquals(9_000L, report.statusCounts().get(ExpenseStatus.APPROVED));
+	}
+
+	private static CompiledWorkflow workflow(boolean managerApprover, List<ApprovalStep> steps, List<ApprovalRule> rules) {
+		Companymodel company = new Companymodel();
+		company.setId(1L);
+		ApprovalWorkflow workflow = new ApprovalWorkflow();
+		workflow.setId(5L);
+		workflow.setCompany(company);
+		workflow.setName("Candidate");
+		workflow.setIsManagerApprover(managerApprover);
+		return CompiledWorkflow.compile(workflow, steps, rules);
+	}
+
+	private static ApprovalStep step(int stepOrder, String role, String minAmount) {
+		ApprovalStep step = new ApprovalStep();
+		step.setStepOrder(stepOrder);
+		step.setRole(role);
+		step.setMinAmount(minAmount != null ? new BigDecimal(minAmount) : null);
+		return step;
+	}
+
+	private static User user(Long id) {
+		User user = new User();
+		user.setId(id);
+		return user;
+	}
+}
@@ -0,0 +1,109 @@
+package com.example.expenseapproval.service.sla;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+
+import com.example.expenseapproval.model.Approval;
+import com.example.expenseapproval.model.Approval.ApprovalStatus;
+import com.example.expenseapproval.model.Approval.SlaStage;
+import com.example.expenseapproval.model.User;
+import com.example.expenseapproval.repository.ApprovalRepository;
+import com.example.expenseapproval.service.OptimisticRetry;
+import com.example.expenseapproval.service.audit.AuditTrail;
+
+// A restarted instance re-arms its timers from the stage persisted on each pending approval
+class SlaEscalationSchedulerTest {
+
+	private final ApprovalRepository approvalRepository = mock(ApprovalRepository.class);
+
+	private final AuditTrail auditTrail = mock(AuditTrail.class);
+
+	private final SlaEscalationScheduler scheduler = new SlaEscalationScheduler();
+
+	@BeforeEach
+	void setUp() {
+		OptimisticRetry optimisticRetry = mock(OptimisticRetry.class);
+		when(optimisticRetry.inTransaction(any())).thenAnswer(
+				invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+		ReflectionTestUtils.setField(scheduler, "approvalRepository", approvalRepository);
+		ReflectionTestUtils.setField(scheduler, "auditTrail", auditTrail);
+		ReflectionTestUtils.setField(scheduler, "optimisticRetry", optimisticRetry);
+		ReflectionTestUtils.setField(scheduler, "reminderAfter", Duration.ofHours(24));
+		ReflectionTestUtils.setField(scheduler, "escalateAfter", Duration.ofHours(72));
+		ReflectionTestUtils.setField(scheduler, "tickMillis", 1000L);
+		scheduler.init();
+	}
+
+	@Test
+	void aReminderAlreadySentIsNotSentAgain() {
+		LocalDateTime createdAt = LocalDateTime.now().minusHours(30);
+		when(approvalRepository.findPendingSla())
+				.thenReturn(List.of(new PendingApprovalSla(1L, createdAt, SlaStage.REMINDED)));
+
+		scheduler.loadPendingApprovals();
+		scheduler.tick();
+
+		assertEquals(1, scheduler.trackedApprovals()); // Armed for the escalation, 42 hours away
+		verifyNoInteractions(auditTrail);
+	}
+
+	@Test
+	void anOverdueApprovalOnlyGetsTheStageItHasNotReached() {
+		LocalDateTime createdAt = LocalDateTime.now().minusHours(80);
+		when(approvalRepository.findPendingSla())
+				.thenReturn(List.of(new PendingApprovalSla(1L, createdAt, SlaStage.REMINDED)));
+		when(approvalRepository.findAllWithExpenseByIdIn(anyCollection()))
+				.thenReturn(List.of(approval(1L, createdAt, SlaStage.REMINDED)));
+
+		scheduler.loadPendingApprovals();
+		scheduler.tick();
+
+		verify(auditTrail).record(eq(8L), eq("APPROVAL_SLA_ESCALATED"), eq("Approval"), eq(1L), any(), anyString());
+		verify(auditTrail, never()).record(any(), eq("APPROVAL_SLA_REMINDER"), any(), any(), any(), any());
+		assertEquals(0, scheduler.trackedApprovals()); // Nothing after the escalation
+	}
+
+	@Test
+	void anEscalatedApprovalIsNotArmedAgain() {
+		when(approvalRepository.findPendingSla()).thenReturn(
+				List.of(new PendingApprovalSla(1L, LocalDateTime.now().minusHours(100), SlaStage.ESCALATED)));
+
+		scheduler.loadPendingApprovals();
+		scheduler.tick();
+
+		assertEquals(0, scheduler.trackedApprovals());
+		verifyNoInteractions(auditTrail);
+	}
+
+	private static Approval approval(Long id, LocalDateTime createdAt, SlaStage stage) {
+		User manager = new User();
+		manager.setId(8L);
+		User approver = new User();
+		approver.setId(7L);
+		approver.setManager(manager);
+		Approval approval = new Approval();
+		approval.setId(id);
+		approval.setApprover(approver);
+		approval.setStatus(ApprovalStatus.PENDING);
+		approval.setCreatedAt(createdAt);
+		approval.setSlaStage(stage);
+		return approval;
+	}
+}
@@ -0,0 +1,116 @@
+package com.example.expenseapproval.service.sla;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+// One tick per millisecond unless stated otherwise; level L slots span 64^L ticks, the top level 64^4 = 2^24 in all
+class TimerWheelTest {
+
+	private static final long TOP_SPAN = 1L << 24;
+
+	@Test
+	void aDeadlineInTheCurrentTickOrBeforeFiresOnTheNextAdvance() {
+		TimerWheel<String> wheel = new TimerWheel<>(10, 1_005);
+		wheel.schedule(1_000, "current");
+		wheel.schedule(20, "past");
+
+		assertEquals(Set.of("current", "past"), Set.copyOf(wheel.advance(1_005)));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void aTimerNeverFiresBeforeItsDeadline() {
+		TimerWheel<String> wheel = new TimerWheel<>(10, 0);
+		wheel.schedule(15, "timer"); // Rounded up to tick 2
+
+		assertTrue(wheel.advance(19).isEmpty());
+		assertEquals(List.of("timer"), wheel.advance(20));
+	}
+
+	@Test
+	void timersCascadeAcrossEveryLevelBoundary() {
+		TimerWheel<Long> wheel = new TimerWheel<>(1, 40);
+		long[] deadlines = { 41, 63, 64, 65, 127, 128, 4_095, 4_096, 4_097, 4_096 * 3 + 5, 262_143, 262_144, 262_145,
+				5_000_000, TOP_SPAN - 1 };
+		for (long deadline : deadlines) {
+			wheel.schedule(deadline, deadline);
+		}
+
+		for (long deadline : deadlines) {
+			assertTrue(wheel.advance(deadline - 1).isEmpty(), "early at " + deadline);
+			assertEquals(List.of(deadline), wheel.advance(deadline), "at " + deadline);
+		}
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void deadlinesBeyondTheTopLevelWaitInTheOverflow() {
+		TimerWheel<Long> wheel = new TimerWheel<>(1, 100);
+		long[] deadlines = { TOP_SPAN, TOP_SPAN + 70, 2 * TOP_SPAN + 3 };
+		for (long deadline : deadlines) {
+			wheel.schedule(deadline, deadline);
+		}
+
+		for (long deadline : deadlines) {
+			assertTrue(wheel.advance(deadline - 1).isEmpty(), "early at " + deadline);
+			assertEquals(List.of(deadline), wheel.advance(deadline), "at " + deadline);
+		}
+	}
+
+	@Test
+	void cancelWorksBeforeAndAfterATimerCascades() {
+		TimerWheel<String> wheel = new TimerWheel<>(1, 0);
+		TimerWheel.Timeout<String> beforeCascade = wheel.schedule(5_000, "before");
+		TimerWheel.Timeout<String> afterCascade = wheel.schedule(5_001, "after");
+		wheel.schedule(5_002, "kept");
+
+		assertTrue(wheel.cancel(beforeCascade));
+		assertTrue(wheel.advance(4_999).isEmpty()); // Moved the level-2 slot down to the lower levels
+		assertTrue(wheel.cancel(afterCascade));
+		assertFalse(wheel.cancel(afterCascade));
+		assertEquals(1, wheel.size());
+
+		assertEquals(List.of("kept"), wheel.advance(6_000));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void aFiredTimerCannotBeCancelled() {
+		TimerWheel<String> wheel = new TimerWheel<>(1, 0);
+		TimerWheel.Timeout<String> timeout = wheel.schedule(70, "timer");
+
+		assertEquals(List.of("timer"), wheel.advance(100));
+		assertFalse(wheel.cancel(timeout));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void aLargeJumpFiresEverythingDueAndNothingElse() {
+		TimerWheel<Long> wheel = new TimerWheel<>(1, 7);
+		Random random = new Random(42);
+		Set<Long> due = new HashSet<>();
+		List<Long> later = new ArrayList<>();
+		for (int i = 0; i < 2_000; i++) {
+			long deadline = 8 + random.nextInt(3 * (int) TOP_SPAN / 2);
+			wheel.schedule(deadline, deadline);
+			if (deadline <= TOP_SPAN + 10) {
+				due.add(deadline);
+			} else {
+				later.add(deadline);
+			}
+		}
+
+		assertEquals(due, Set.copyOf(wheel.advance(TOP_SPAN + 10)));
+		assertEquals(later.size(), wheel.size());
+		assertEquals(Set.copyOf(later), Set.copyOf(wheel.advance(2 * TOP_SPAN)));
+	}
+}